@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.data.api
+
+import android.os.SystemClock
+import android.util.Log
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import com.google.gson.Gson
+import com.google.gson.stream.JsonReader
+import com.share.greencloud.domain.model.ForecastTable
+import com.share.greencloud.domain.model.HourlyWeatherForecastModel
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.io.StringReader
+
+/**
+ 25개 격자의 하루치 동네예보(격자당 8개 시각 x 14개 항목, 4 페이지) 응답을
+ Gson 모델로 읽은 뒤 항목을 훑는 이전 방식과 ForecastSpaceDataParser 로 ForecastTable 에 바로 읽는 방식을 비교한다.
+ 결과는 logcat 의 ForecastParserBench 태그로 출력된다.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4::class)
+class ForecastSpaceDataParserBenchmark {
+
+    private val gridCount = 25
+    private val pagesPerGrid = 4
+    private val repeat = 20
+    private val categories = ForecastTable.Category.values()
+    private val pages: List<String> = makePages()
+
+    @Test
+    fun gsonModel() {
+        val gson = Gson()
+        var pop = 0
+        val start = SystemClock.elapsedRealtimeNanos()
+        for (r in 0 until repeat) {
+            for (page in pages) {
+                val model = gson.fromJson(page, HourlyWeatherForecastModel::class.java)
+                for (item in model.getResonse().body.item.items) {
+                    if (item.category == "POP") {
+                        pop += Integer.parseInt(item.fcstValue)
+                    }
+                }
+            }
+        }
+        val elapsed = SystemClock.elapsedRealtimeNanos() - start
+
+        Log.i(TAG, "gson x ${pages.size * repeat} pages: ${elapsed / 1_000_000}ms, pop sum $pop")
+    }
+
+    @Test
+    fun streamingTable() {
+        val table = ForecastTable()
+        var pop = 0
+        val start = SystemClock.elapsedRealtimeNanos()
+        for (r in 0 until repeat) {
+            for (grid in 0 until gridCount) {
+                // 표 하나에는 한 격자의 예보만 담으므로 격자마다 비운다
+                table.clear()
+                for (p in 0 until pagesPerGrid) {
+                    ForecastSpaceDataParser.parse(JsonReader(StringReader(pages[grid * pagesPerGrid + p])), table)
+                }
+                for (slot in 0 until table.slotCount) {
+                    pop += table.get(slot, ForecastTable.Category.POP).toInt()
+                }
+            }
+        }
+        val elapsed = SystemClock.elapsedRealtimeNanos() - start
+
+        Log.i(TAG, "streaming x ${pages.size * repeat} pages: ${elapsed / 1_000_000}ms, pop sum $pop")
+        assertEquals(8, table.slotCount)
+    }
+
+    private fun makePages(): List<String> {
+        val itemsPerPage = 8 * categories.size / pagesPerGrid
+        val result = ArrayList<String>()
+        for (grid in 0 until gridCount) {
+            val items = ArrayList<String>()
+            for (slot in 0 until 8) {
+                for (category in categories) {
+                    val time = "%02d00".format(slot * 3)
+                    items.add("""{"baseDate":20191201,"baseTime":"2300","category":"$category","fcstDate":20191202,""" +
+                            """"fcstTime":"$time","fcstValue":${(grid + slot) % 10 * 10},"nx":${55 + grid},"ny":127}""")
+                }
+            }
+            for (p in 0 until pagesPerGrid) {
+                val page = items.subList(p * itemsPerPage, (p + 1) * itemsPerPage).joinToString(",")
+                result.add("""{"response":{"header":{"resultCode":"0000","resultMsg":"OK"},"body":{"items":{"item":[$page]},""" +
+                        """"numOfRows":$itemsPerPage,"pageNo":${p + 1},"totalCount":${items.size}}}}""")
+            }
+        }
+        return result
+    }
+
+    companion object {
+        private const val TAG = "ForecastParserBench"
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.data.db
+
+import android.os.SystemClock
+import android.util.Log
+import androidx.room.InvalidationTracker
+import androidx.room.Room
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import androidx.test.platform.app.InstrumentationRegistry
+import com.share.greencloud.domain.model.RentalOffice
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ 10,000개 대여소 저장 시 한 건씩 저장하는 경우와 upsertAll 로 한번에 저장하는 경우의
+ 쓰기 시간과 rentaloffices 테이블 invalidation 횟수를 비교한다.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4::class)
+class RentalOfficeDaoBenchmark {
+
+    private val officeCount = 10_000
+
+    private lateinit var db: RentalOfficeDatabase
+    private lateinit var dao: RentalOfficeDao
+    private val invalidations = AtomicInteger()
+
+    @Before
+    fun setup() {
+        val context = InstrumentationRegistry.getInstrumentation().targetContext
+        db = Room.inMemoryDatabaseBuilder(context, RentalOfficeDatabase::class.java).build()
+        dao = db.RentalOfficeDao()
+        db.invalidationTracker.addObserver(object : InvalidationTracker.Observer("rentaloffices") {
+            override fun onInvalidated(tables: MutableSet<String>) {
+                invalidations.incrementAndGet()
+            }
+        })
+    }
+
+    @After
+    fun tearDown() {
+        db.close()
+    }
+
+    @Test
+    fun insertOneByOne() {
+        val offices = makeOffices()
+        val start = SystemClock.elapsedRealtime()
+        for (office in offices) {
+            dao.insert(office)
+        }
+        val elapsed = SystemClock.elapsedRealtime() - start
+        awaitInvalidations()
+
+        Log.i(TAG, "insert x $officeCount: ${elapsed}ms, invalidations: ${invalidations.get()}")
+        assertEquals(officeCount, dao.count())
+    }
+
+    @Test
+    fun upsertAllInOneTransaction() {
+        val offices = makeOffices()
+        val start = SystemClock.elapsedRealtime()
+        dao.upsertAll(offices)
+        val elapsed = SystemClock.elapsedRealtime() - start
+        awaitInvalidations()
+
+        Log.i(TAG, "upsertAll($officeCount): ${elapsed}ms, invalidations: ${invalidations.get()}")
+        assertEquals(officeCount, dao.count())
+        assertTrue(invalidations.get() <= 1)
+    }
+
+    private fun makeOffices(): List<RentalOffice> = (0 until officeCount).map {
+        RentalOffice(it, "대여소 $it", "위치 $it", 37.4 + it * 0.00001, 127.0 + it * 0.00001, it % 30)
+    }
+
+    // invalidation 은 Room 의 쿼리 스레드에서 비동기로 전달됨
+    private fun awaitInvalidations() {
+        db.invalidationTracker.refreshVersionsSync()
+        SystemClock.sleep(200)
+    }
+
+    companion object {
+        private const val TAG = "RentalOfficeDaoBench"
+    }
+}
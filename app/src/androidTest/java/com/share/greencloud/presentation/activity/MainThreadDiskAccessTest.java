@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.presentation.activity;
+
+import android.app.Activity;
+import android.os.Build;
+import android.os.StrictMode;
+import android.os.strictmode.Violation;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.test.espresso.Espresso;
+import androidx.test.espresso.IdlingRegistry;
+import androidx.test.espresso.IdlingResource;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.rule.ActivityTestRule;
+
+import com.google.android.gms.maps.MapView;
+import com.share.greencloud.R;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ StrictMode 로 메인 스레드의 디스크 I/O 를 감지하여, 앱 코드에서 발생한 위반이 없는지 확인한다.
+ 위반마다 스택의 가장 위에 있는 플랫폼/AndroidX 밖의 프레임으로 판단하므로, 앱 코드가 호출했더라도 외부 SDK
+ (Kakao, Crashlytics, Google Maps 등) 안에서 발생한 위반은 제외된다.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+@SdkSuppress(minSdkVersion = Build.VERSION_CODES.P)
+public class MainThreadDiskAccessTest {
+
+    private static final String APP_PACKAGE = "com.share.greencloud.";
+    // 앱이나 SDK 를 대신해서 실행되는 코드. 위반의 원인으로 보지 않고 아래 프레임을 본다
+    private static final String[] PLATFORM_PACKAGES = {
+            "java.", "javax.", "sun.", "libcore.", "dalvik.", "android.", "com.android.", "androidx.", "kotlin."
+    };
+    private static final long MAP_READY_TIMEOUT_SECONDS = 30;
+
+    @Rule
+    public ActivityTestRule<SearchResultActivity> searchResultRule
+            = new ActivityTestRule<>(SearchResultActivity.class, false, false);
+
+    @Rule
+    public ActivityTestRule<MainActivity> mainRule
+            = new ActivityTestRule<>(MainActivity.class, false, false);
+
+    private final List<Violation> violations = new CopyOnWriteArrayList<>();
+    private StrictMode.ThreadPolicy originalPolicy;
+
+    @Before
+    public void setup() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            originalPolicy = StrictMode.getThreadPolicy();
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectDiskReads()
+                    .detectDiskWrites()
+                    .penaltyListener(Executors.newSingleThreadExecutor(), violations::add)
+                    .build());
+        });
+    }
+
+    @After
+    public void tearDown() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> StrictMode.setThreadPolicy(originalPolicy));
+    }
+
+    @Test
+    public void searchResultDoesNoDiskIoOnMainThread() {
+        SearchResultActivity activity = searchResultRule.launchActivity(null);
+        // DB 에서 목록을 받으면 RecyclerView 가 보이게 된다
+        awaitVisible(activity, R.id.search_result_recyclerView);
+
+        assertNoAppViolations();
+    }
+
+    @Test
+    public void mapDoesNoDiskIoOnMainThread() throws InterruptedException {
+        MainActivity activity = mainRule.launchActivity(null);
+        awaitMapReady(activity);
+
+        assertNoAppViolations();
+    }
+
+    private static void awaitVisible(Activity activity, int viewId) {
+        IdlingResource visible = new ViewVisibleIdlingResource(activity, viewId);
+        IdlingRegistry.getInstance().register(visible);
+        try {
+            Espresso.onIdle();
+        } finally {
+            IdlingRegistry.getInstance().unregister(visible);
+        }
+    }
+
+    // MapFragment 가 먼저 등록한 onMapReady 다음에 호출되므로, 지도 설정과 마커 로딩이 시작된 뒤 메인 스레드가 한가해질 때까지 기다린다
+    private static void awaitMapReady(Activity activity) throws InterruptedException {
+        awaitVisible(activity, R.id.map);
+        CountDownLatch mapReady = new CountDownLatch(1);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            MapView mapView = activity.findViewById(R.id.map);
+            mapView.getMapAsync(googleMap -> mapReady.countDown());
+        });
+        assertTrue("map is not ready", mapReady.await(MAP_READY_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Espresso.onIdle();
+    }
+
+    private void assertNoAppViolations() {
+        for (Violation violation : violations) {
+            StackTraceElement culprit = findCulprit(violation.getStackTrace());
+            if (culprit != null && culprit.getClassName().startsWith(APP_PACKAGE)) {
+                fail("main thread disk access at " + culprit);
+            }
+        }
+    }
+
+    // 스택에서 가장 위에 있는, 플랫폼 밖의 프레임 (앱 또는 외부 SDK)
+    private static StackTraceElement findCulprit(StackTraceElement[] stackTrace) {
+        for (StackTraceElement element : stackTrace) {
+            if (!isPlatformFrame(element)) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isPlatformFrame(StackTraceElement element) {
+        for (String prefix : PLATFORM_PACKAGES) {
+            if (element.getClassName().startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     뷰가 VISIBLE 이 되면 idle. 레이아웃이 끝날 때마다 다시 확인한다.
+     */
+    private static final class ViewVisibleIdlingResource implements IdlingResource {
+
+        private final Activity activity;
+        private final int viewId;
+        private volatile ResourceCallback callback;
+
+        ViewVisibleIdlingResource(Activity activity, int viewId) {
+            this.activity = activity;
+            this.viewId = viewId;
+        }
+
+        @Override
+        public String getName() {
+            return "view " + activity.getResources().getResourceEntryName(viewId) + " visible";
+        }
+
+        @Override
+        public boolean isIdleNow() {
+            View view = activity.findViewById(viewId);
+            return view != null && view.getVisibility() == View.VISIBLE;
+        }
+
+        @Override
+        public void registerIdleTransitionCallback(ResourceCallback callback) {
+            this.callback = callback;
+            ViewTreeObserver observer = activity.getWindow().getDecorView().getViewTreeObserver();
+            observer.addOnGlobalLayoutListener(new ViewTreeObserver.OnGlobalLayoutListener() {
+                @Override
+                public void onGlobalLayout() {
+                    if (isIdleNow()) {
+                        activity.getWindow().getDecorView().getViewTreeObserver().removeOnGlobalLayoutListener(this);
+                        ViewVisibleIdlingResource.this.callback.onTransitionToIdle();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.presentation.fragment;
+
+import android.content.Context;
+import android.util.Log;
+import android.view.Choreographer;
+
+import androidx.test.espresso.Espresso;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.rule.ActivityTestRule;
+
+import com.google.android.gms.maps.MapView;
+import com.share.greencloud.R;
+import com.share.greencloud.data.db.RentalOfficeDao;
+import com.share.greencloud.data.db.RentalOfficeDatabase;
+import com.share.greencloud.domain.model.RentalOffice;
+import com.share.greencloud.presentation.activity.MainActivity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static androidx.test.espresso.Espresso.onView;
+import static androidx.test.espresso.action.ViewActions.swipeDown;
+import static androidx.test.espresso.action.ViewActions.swipeLeft;
+import static androidx.test.espresso.action.ViewActions.swipeRight;
+import static androidx.test.espresso.action.ViewActions.swipeUp;
+import static androidx.test.espresso.assertion.ViewAssertions.matches;
+import static androidx.test.espresso.matcher.ViewMatchers.isDisplayed;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static org.junit.Assert.assertTrue;
+
+/**
+ 서울 주변에 5,000개 대여소를 넣고 지도를 이동시키면서 프레임 간격을 측정한다.
+ 결과(p50/p90/p99/max, 16ms 초과 프레임 비율)는 logcat 의 MapMarkerFrameTime 태그로 출력된다.
+ 넣은 대여소는 테스트가 끝나면 지운다.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class MapMarkerFrameTimeBenchmark {
+
+    private static final String TAG = "MapMarkerFrameTime";
+    private static final int FIRST_OFFICE_ID = 100000;
+    private static final int OFFICE_COUNT = 5000;
+    private static final long MAP_READY_TIMEOUT_SECONDS = 30;
+    private static final long FRAME_BUDGET_NANOS = 16_666_667L;
+
+    @Rule
+    public ActivityTestRule<MainActivity> activityRule = new ActivityTestRule<>(MainActivity.class, false, false);
+
+    // 메인 스레드의 Choreographer 콜백에서만 읽고 쓴다
+    private final List<Long> frameIntervals = new ArrayList<>();
+    private volatile boolean recording;
+    private long lastFrameTimeNanos;
+
+    @Before
+    public void seedOffices() {
+        List<RentalOffice> offices = new ArrayList<>(OFFICE_COUNT);
+        for (int i = 0; i < OFFICE_COUNT; i++) {
+            double lat = 37.45 + (i / 100) * 0.003;
+            double lon = 126.90 + (i % 100) * 0.003;
+            offices.add(new RentalOffice(FIRST_OFFICE_ID + i, "대여소 " + i, "벤치마크", lat, lon, i % 30));
+        }
+        getDao().upsertAll(offices);
+    }
+
+    // 실제 앱 DB 에 넣은 가짜 대여소가 지도에 남지 않도록 지운다
+    @After
+    public void removeOffices() {
+        List<Integer> ids = new ArrayList<>(OFFICE_COUNT);
+        for (int i = 0; i < OFFICE_COUNT; i++) {
+            ids.add(FIRST_OFFICE_ID + i);
+        }
+        getDao().applyDelta(Collections.emptyList(), ids, false);
+    }
+
+    @Test
+    public void panMapWithManyOffices() throws InterruptedException {
+        activityRule.launchActivity(null);
+        awaitMapReady();
+
+        startRecording();
+        for (int i = 0; i < 5; i++) {
+            onView(withId(R.id.map)).perform(swipeLeft());
+            onView(withId(R.id.map)).perform(swipeUp());
+            onView(withId(R.id.map)).perform(swipeRight());
+            onView(withId(R.id.map)).perform(swipeDown());
+        }
+        Thread.sleep(1000);
+        recording = false;
+
+        long[] sorted = copyFrameIntervals();
+        assertTrue(sorted.length > 0);
+        report(sorted);
+    }
+
+    private static RentalOfficeDao getDao() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        return RentalOfficeDatabase.getDatabase(context).RentalOfficeDao();
+    }
+
+    // MapFragment 가 먼저 등록한 onMapReady 다음에 호출되므로, 지도 설정과 마커 로딩 요청이 끝난 뒤에 측정을 시작한다
+    private void awaitMapReady() throws InterruptedException {
+        onView(withId(R.id.map)).check(matches(isDisplayed()));
+        CountDownLatch mapReady = new CountDownLatch(1);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            MapView mapView = activityRule.getActivity().findViewById(R.id.map);
+            mapView.getMapAsync(googleMap -> mapReady.countDown());
+        });
+        assertTrue("map is not ready", mapReady.await(MAP_READY_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Espresso.onIdle();
+    }
+
+    private void startRecording() {
+        recording = true;
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            frameIntervals.clear();
+            lastFrameTimeNanos = 0;
+            Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    if (lastFrameTimeNanos != 0) {
+                        frameIntervals.add(frameTimeNanos - lastFrameTimeNanos);
+                    }
+                    lastFrameTimeNanos = frameTimeNanos;
+                    if (recording) {
+                        Choreographer.getInstance().postFrameCallback(this);
+                    }
+                }
+            });
+        });
+    }
+
+    // 프레임 콜백과 같은 메인 스레드에서 복사한다
+    private long[] copyFrameIntervals() {
+        long[][] res = new long[1][];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            res[0] = new long[frameIntervals.size()];
+            for (int i = 0; i < res[0].length; i++) {
+                res[0][i] = frameIntervals.get(i);
+            }
+        });
+        return res[0];
+    }
+
+    private void report(long[] sorted) {
+        int janky = 0;
+        for (long interval : sorted) {
+            if (interval > FRAME_BUDGET_NANOS * 3 / 2) {
+                janky++;
+            }
+        }
+        Arrays.sort(sorted);
+        Log.i(TAG, String.format(Locale.US, "offices=%d frames=%d p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms janky=%.1f%%",
+                OFFICE_COUNT, sorted.length,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                sorted[sorted.length - 1] / 1e6, 100.0 * janky / sorted.length));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)));
+        return sorted[index] / 1e6;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.utils
+
+import android.os.SystemClock
+import android.util.Log
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ 10,000개 좌표를 격자로 변환할 때 매번 투영 상수를 다시 계산하고 HashMap / String 을 만드는 이전 방식과
+ 미리 계산한 KMA_GRID 의 일괄 변환을 비교한다. 결과는 logcat 의 GridxyConverterBench 태그로 출력된다.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4::class)
+class GridxyConverterBenchmark {
+
+    private val pointCount = 10_000
+    private val repeat = 20
+
+    private val lats = DoubleArray(pointCount) { 37.4 + (it % 100) * 0.002 }
+    private val lons = DoubleArray(pointCount) { 126.8 + (it / 100) * 0.004 }
+
+    @Test
+    fun legacyPerCallConversion() {
+        var checksum = 0
+        val start = SystemClock.elapsedRealtimeNanos()
+        for (r in 0 until repeat) {
+            for (i in 0 until pointCount) {
+                val grid = legacyCalculateGridxy(lats[i], lons[i])
+                checksum += Integer.parseInt(grid[0]) + Integer.parseInt(grid[1])
+            }
+        }
+        val elapsed = SystemClock.elapsedRealtimeNanos() - start
+
+        Log.i(TAG, "legacy x ${pointCount * repeat}: ${elapsed / 1_000_000}ms, checksum $checksum")
+    }
+
+    @Test
+    fun precomputedBulkConversion() {
+        val out = IntArray(pointCount)
+        var checksum = 0
+        val start = SystemClock.elapsedRealtimeNanos()
+        for (r in 0 until repeat) {
+            GridxyConverter.KMA_GRID.toGrid(lats, lons, pointCount, out)
+            for (grid in out) {
+                checksum += GridxyConverter.gridX(grid) + GridxyConverter.gridY(grid)
+            }
+        }
+        val elapsed = SystemClock.elapsedRealtimeNanos() - start
+
+        Log.i(TAG, "bulk x ${pointCount * repeat}: ${elapsed / 1_000_000}ms, checksum $checksum")
+        for (i in 0 until pointCount) {
+            val legacy = legacyCalculateGridxy(lats[i], lons[i])
+            assertEquals(legacy[0].toInt(), GridxyConverter.gridX(out[i]))
+            assertEquals(legacy[1].toInt(), GridxyConverter.gridY(out[i]))
+        }
+    }
+
+    // 변경 전 GridxyConverter.calculateGridxy 구현
+    private fun legacyCalculateGridxy(v1: Double, v2: Double): Array<String> {
+        val degrad = Math.PI / 180.0
+        val re = 6371.00877 / 5.0
+        val slat1 = 30.0 * degrad
+        val slat2 = 60.0 * degrad
+        val olon = 126.0 * degrad
+        val olat = 38.0 * degrad
+
+        var sn = Math.tan(Math.PI * 0.25 + slat2 * 0.5) / Math.tan(Math.PI * 0.25 + slat1 * 0.5)
+        sn = Math.log(Math.cos(slat1) / Math.cos(slat2)) / Math.log(sn)
+        var sf = Math.tan(Math.PI * 0.25 + slat1 * 0.5)
+        sf = Math.pow(sf, sn) * Math.cos(slat1) / sn
+        var ro = Math.tan(Math.PI * 0.25 + olat * 0.5)
+        ro = re * sf / Math.pow(ro, sn)
+        val map = HashMap<String, Any>()
+
+        var ra = Math.tan(Math.PI * 0.25 + v1 * degrad * 0.5)
+        ra = re * sf / Math.pow(ra, sn)
+        var theta = v2 * degrad - olon
+        if (theta > Math.PI) theta -= 2.0 * Math.PI
+        if (theta < -Math.PI) theta += 2.0 * Math.PI
+        theta *= sn
+
+        map["lat"] = v1
+        map["lng"] = v2
+        map["x"] = Math.floor(ra * Math.sin(theta) + 43 + 0.5).toInt()
+        map["y"] = Math.floor(ro - ra * Math.cos(theta) + 136 + 0.5).toInt()
+        return arrayOf(map["x"].toString(), map["y"].toString())
+    }
+
+    companion object {
+        private const val TAG = "GridxyConverterBench"
+    }
+}
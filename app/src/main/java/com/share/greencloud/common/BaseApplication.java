@@ -9,6 +9,8 @@ import android.app.Application;
 import com.crashlytics.android.Crashlytics;
 import com.facebook.stetho.Stetho;
 import com.kakao.auth.KakaoSDK;
+import com.share.greencloud.data.api.HttpClientProvider;
+import com.share.greencloud.data.api.WeatherCache;
 import com.share.greencloud.presentation.adapter.KakaoSDKAdapter;
 import com.share.greencloud.utils.GreenCloudPreferences;
 import com.squareup.leakcanary.LeakCanary;
@@ -33,6 +35,10 @@ public class BaseApplication extends Application {
         super.onCreate();
         instance = this;
 
+        // 공유 네트워크 스택과 날씨 캐시의 디스크 캐시 위치 지정
+        HttpClientProvider.init(this);
+        WeatherCache.init(this);
+
         // Kakao Sdk 초기화
         KakaoSDK.init(new KakaoSDKAdapter());
 
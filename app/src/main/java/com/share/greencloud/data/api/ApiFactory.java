@@ -5,39 +5,69 @@
 package com.share.greencloud.data.api;
 
 import com.facebook.stetho.okhttp3.StethoInterceptor;
+import com.share.greencloud.BuildConfig;
+
+import java.util.HashMap;
+import java.util.Map;
 
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Converter;
 import retrofit2.Retrofit;
+import timber.log.Timber;
 
 public class ApiFactory {
 
+    // 로그 한 줄의 최대 길이 (응답 바디 전체가 찍히지 않도록 제한)
+    static final int MAX_LOG_LENGTH = 4000;
 
-    private static OkHttpClient.Builder httpClient = new OkHttpClient.Builder();
-
-    public static <T> T createRetrofitApi(final Class<T> clazz, final String endPoint, Converter.Factory convertFactory) {
+    // base URL 별로 한번만 생성되는 클라이언트
+    private static final Map<String, OkHttpClient> clients = new HashMap<>();
 
-        //if (Constants.MODE == Constants.MODE.DEBUG) {
-        HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
-        logging.setLevel(HttpLoggingInterceptor.Level.BODY);
-        httpClient.addInterceptor(logging);
-        httpClient.addNetworkInterceptor(new StethoInterceptor());
-        //}
+    // base URL + 서비스 인터페이스 + 컨버터 종류 별로 한번만 생성되는 서비스
+    private static final Map<String, Object> services = new HashMap<>();
 
+    @SuppressWarnings("unchecked")
+    public static synchronized <T> T createRetrofitApi(final Class<T> clazz, final String endPoint, Converter.Factory convertFactory) {
+        // 컨버터는 호출할 때마다 새로 만들어지므로 같은 클래스의 컨버터는 같은 것으로 본다
+        final String key = endPoint + "#" + clazz.getName() + "#" + convertFactory.getClass().getName();
+        T service = (T) services.get(key);
+        if (service != null) {
+            return service;
+        }
 
         final Retrofit retrofit =
                 new Retrofit.Builder()
                         .baseUrl(endPoint)
                         .addConverterFactory(convertFactory)
-                        .client(httpClient.build())
+                        .client(getClient(endPoint))
                         .build();
 
+        service = retrofit.create(clazz);
+        services.put(key, service);
+        return service;
+    }
 
-        return retrofit.create(clazz);
+    static synchronized OkHttpClient getClient(final String endPoint) {
+        OkHttpClient client = clients.get(endPoint);
+        if (client == null) {
+            client = buildClient();
+            clients.put(endPoint, client);
+        }
+        return client;
     }
 
+    private static OkHttpClient buildClient() {
+        OkHttpClient.Builder httpClient = HttpClientProvider.getSharedClient().newBuilder();
 
-}
-
+        if (BuildConfig.DEBUG) {
+            HttpLoggingInterceptor logging = new HttpLoggingInterceptor(message ->
+                    Timber.tag("OkHttp").d(message.length() > MAX_LOG_LENGTH ? message.substring(0, MAX_LOG_LENGTH) + "…" : message));
+            logging.setLevel(HttpLoggingInterceptor.Level.BODY);
+            httpClient.addInterceptor(logging);
+            httpClient.addNetworkInterceptor(new StethoInterceptor());
+        }
 
+        return httpClient.build();
+    }
+}
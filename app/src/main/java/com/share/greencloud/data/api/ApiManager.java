@@ -4,6 +4,7 @@
 
 package com.share.greencloud.data.api;
 
+import com.share.greencloud.BuildConfig;
 import com.share.greencloud.common.Constants;
 import com.share.greencloud.domain.interator.BookingRestResponse;
 import com.share.greencloud.domain.interator.CallbackListener;
@@ -28,8 +29,9 @@ import retrofit2.converter.gson.GsonConverterFactory;
 public class ApiManager {
 
     private static ApiManager apiManager;
+    private ApiServices service;
 
-    public static ApiManager getInstance() {
+    public static synchronized ApiManager getInstance() {
         if (apiManager == null) {
             apiManager = new ApiManager();
         }
@@ -37,13 +39,18 @@ public class ApiManager {
     }
 
 
-    public ApiServices getService() {
+    public synchronized ApiServices getService() {
+        if (service != null) {
+            return service;
+        }
 
-        OkHttpClient.Builder httpClient = new OkHttpClient.Builder();
-        HttpLoggingInterceptor logger = new HttpLoggingInterceptor();
-        logger.setLevel(HttpLoggingInterceptor.Level.HEADERS);
-        logger.setLevel(HttpLoggingInterceptor.Level.BODY);
-        httpClient.addInterceptor(logger);
+        // 공유 클라이언트에서 파생하여 커넥션 풀과 디스패처를 재사용
+        OkHttpClient.Builder httpClient = HttpClientProvider.getSharedClient().newBuilder();
+        if (BuildConfig.DEBUG) {
+            HttpLoggingInterceptor logger = new HttpLoggingInterceptor();
+            logger.setLevel(HttpLoggingInterceptor.Level.BODY);
+            httpClient.addInterceptor(logger);
+        }
 
         httpClient.addInterceptor(chain -> {
             Request request = chain.request().newBuilder()
@@ -68,8 +75,8 @@ public class ApiManager {
                 .addConverterFactory(GsonConverterFactory.create())
                 .build();
 
-        //통신인터페이스 기반 서비스 생성
-        ApiServices service = retrofit.create(ApiServices.class);
+        //통신인터페이스 기반 서비스 생성 (한번만 생성하여 재사용)
+        service = retrofit.create(ApiServices.class);
         return service;
     }
 
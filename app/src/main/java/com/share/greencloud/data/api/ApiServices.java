@@ -6,9 +6,11 @@ package com.share.greencloud.data.api;
 
 import com.share.greencloud.domain.interator.BookingRestResponse;
 import com.share.greencloud.domain.model.CurrentWeatherModel;
+import com.share.greencloud.domain.model.ForecastTable;
 import com.share.greencloud.domain.model.GreenCloudRestResponse;
 import com.share.greencloud.domain.model.HourlyWeatherForecastModel;
 import com.share.greencloud.domain.model.RentalOffice;
+import com.share.greencloud.domain.model.RentalOfficeDelta;
 import com.share.greencloud.domain.model.UserBody;
 
 import java.util.List;
@@ -39,6 +41,17 @@ public interface ApiServices {
                                                           @Query("pageNo") int pageNo,
                                                           @Query("_type") String _type);
 
+    //기상청 일일 예보 (ForecastTableConverterFactory 로 스트리밍 파싱)
+    @GET("ForecastSpaceData")
+    Call<ForecastTable> getHourlyWeatherTable(@Query(value = "serviceKey", encoded = true) String serviceKey,
+                                              @Query("base_date") String base_date,
+                                              @Query("base_time") String base_time,
+                                              @Query("nx") String nx,
+                                              @Query("ny") String ny,
+                                              @Query("numOfRows") int numOfRows,
+                                              @Query("pageNo") int pageNo,
+                                              @Query("_type") String _type);
+
 
     @GET("weather/current/hourly")
     Call<CurrentWeatherModel> getCurrentWeatherData(@Query(value = "appKey") String serviceKey,
@@ -56,6 +69,15 @@ public interface ApiServices {
     @GET("findRentalOffice")
     Call<List<RentalOffice>> getRentalOffices();
 
+    //캐시 정책 지정 (only-if-cached 등)
+    @GET("findRentalOffice")
+    Call<List<RentalOffice>> getRentalOffices(@Header("Cache-Control") String cacheControl);
+
+    //since 커서 이후 변경/삭제된 대여소만 조회 (since = 0 이면 전체)
+    //서버 API 명세에 없는 가정된 엔드포인트. 404 면 RentalOfficeSyncEngine 이 동기화를 멈춘다
+    @GET("findRentalOffice/delta")
+    Call<RentalOfficeDelta> getRentalOfficeDelta(@Query("since") long since);
+
     @GET("listFavority")
     Call<GreenCloudRestResponse<RentalOffice>> getUserFavoritePlace(@Header("Authorization") Map<String, String> headers);
 
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.data.api;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.share.greencloud.domain.model.ForecastTable;
+
+import java.io.IOException;
+
+/**
+ 동네예보(ForecastSpaceData) JSON 응답을 JsonReader 로 한번 훑으면서 ForecastTable 에 바로 채운다.
+ 중간 객체를 만들지 않고 사용하지 않는 필드(baseDate, nx, ny, resultMsg 등)는 건너뛴다.
+
+ 응답 형식: {"response":{"header":{"resultCode":"0000",...},"body":{"items":{"item":[...]},"totalCount":..}}}
+ XML 을 변환한 응답이라 숫자가 문자열로 오기도 하고, 항목이 하나면 item 이 배열이 아닌 객체로, 없으면 items 가 "" 로 온다.
+ */
+public final class ForecastSpaceDataParser {
+
+    private ForecastSpaceDataParser() {
+    }
+
+    /**
+     응답 하나를 읽어 table 에 추가한다. 같은 격자의 여러 페이지를 같은 table 에 이어서 읽을 수 있다.
+     다른 격자의 응답은 같은 예보 시각의 값을 덮어쓰므로 table.clear() 후에 읽어야 한다.
+     */
+    public static void parse(JsonReader reader, ForecastTable table) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("response".equals(reader.nextName())) {
+                readResponse(reader, table);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readResponse(JsonReader reader, ForecastTable table) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("header".equals(name)) {
+                readHeader(reader, table);
+            } else if ("body".equals(name)) {
+                readBody(reader, table);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readHeader(JsonReader reader, ForecastTable table) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("resultCode".equals(reader.nextName())) {
+                table.setResultCode(reader.nextString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readBody(JsonReader reader, ForecastTable table) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("items".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                readItems(reader, table);
+            } else if ("totalCount".equals(name)) {
+                table.setTotalCount(reader.nextInt());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readItems(JsonReader reader, ForecastTable table) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!"item".equals(reader.nextName())) {
+                reader.skipValue();
+            } else if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    readItem(reader, table);
+                }
+                reader.endArray();
+            } else {
+                readItem(reader, table);
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readItem(JsonReader reader, ForecastTable table) throws IOException {
+        ForecastTable.Category category = null;
+        int date = -1;
+        int time = -1;
+        float value = Float.NaN;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "category":
+                    category = ForecastTable.Category.of(reader.nextString());
+                    break;
+                case "fcstDate":
+                    date = reader.nextInt();
+                    break;
+                case "fcstTime":
+                    time = reader.nextInt();
+                    break;
+                case "fcstValue":
+                    value = (float) reader.nextDouble();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        // 모르는 항목이나 시각이 없는 항목은 무시
+        if (category != null && date >= 0 && time >= 0) {
+            table.put(date, time, category, value);
+        }
+    }
+}
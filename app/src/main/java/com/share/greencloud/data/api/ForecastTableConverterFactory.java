@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.data.api;
+
+import com.google.gson.stream.JsonReader;
+import com.share.greencloud.domain.model.ForecastTable;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ Call<ForecastTable> 응답은 ForecastSpaceDataParser 로 바로 읽고, 나머지 타입은 delegate(Gson 등)에 맡긴다.
+ */
+public final class ForecastTableConverterFactory extends Converter.Factory {
+
+    private final Converter.Factory delegate;
+
+    public static ForecastTableConverterFactory create(Converter.Factory delegate) {
+        return new ForecastTableConverterFactory(delegate);
+    }
+
+    private ForecastTableConverterFactory(Converter.Factory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        if (type == ForecastTable.class) {
+            return (Converter<ResponseBody, ForecastTable>) body -> {
+                try (JsonReader reader = new JsonReader(body.charStream())) {
+                    ForecastTable table = new ForecastTable();
+                    ForecastSpaceDataParser.parse(reader, table);
+                    return table;
+                }
+            };
+        }
+        return delegate.responseBodyConverter(type, annotations, retrofit);
+    }
+
+    @Override
+    public Converter<?, RequestBody> requestBodyConverter(Type type, Annotation[] parameterAnnotations,
+                                                          Annotation[] methodAnnotations, Retrofit retrofit) {
+        return delegate.requestBodyConverter(type, parameterAnnotations, methodAnnotations, retrofit);
+    }
+
+    @Override
+    public Converter<?, String> stringConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        return delegate.stringConverter(type, annotations, retrofit);
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.data.api;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Cache;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+/**
+ 앱 전체에서 공유하는 OkHttp 네트워크 스택.
+ 모든 클라이언트는 getSharedClient().newBuilder() 로 파생되어 커넥션 풀, 디스패처, TLS 세션을 공유한다.
+ */
+public class HttpClientProvider {
+
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final long KEEP_ALIVE_DURATION_MINUTES = 5;
+    private static final int MAX_REQUESTS = 16;
+    private static final int MAX_REQUESTS_PER_HOST = 4;
+    private static final long TIMEOUT_SECONDS = 15;
+    private static final long CACHE_SIZE_BYTES = 10 * 1024 * 1024;
+    private static final String CACHE_DIRECTORY_NAME = "http";
+
+    private static final AtomicLong connectionsAcquired = new AtomicLong();
+    private static final AtomicLong connectionsOpened = new AtomicLong();
+    private static final AtomicLong cacheHits = new AtomicLong();
+    private static final AtomicLong cacheMisses = new AtomicLong();
+    private static final AtomicLong cacheRevalidations = new AtomicLong();
+    private static final AtomicLong cacheOnlyUnsatisfied = new AtomicLong();
+
+    private static File cacheDirectory;
+    private static OkHttpClient sharedClient;
+
+    // Application.onCreate 에서 호출. 공유 클라이언트가 만들어지기 전에 디스크 캐시 위치를 지정한다.
+    public static synchronized void init(Context context) {
+        if (sharedClient == null) {
+            cacheDirectory = new File(context.getCacheDir(), CACHE_DIRECTORY_NAME);
+        }
+    }
+
+    public static synchronized OkHttpClient getSharedClient() {
+        if (sharedClient == null) {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(MAX_REQUESTS);
+            dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+            OkHttpClient.Builder builder = new OkHttpClient.Builder();
+            if (cacheDirectory != null) {
+                builder.cache(new Cache(cacheDirectory, CACHE_SIZE_BYTES));
+            }
+
+            sharedClient = builder
+                    .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_DURATION_MINUTES, TimeUnit.MINUTES))
+                    .dispatcher(dispatcher)
+                    .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)) // TLS 서버는 ALPN 으로 HTTP/2 협상
+                    .connectTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .readTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .eventListener(new ConnectionReuseListener())
+                    .addInterceptor(new CacheStatsInterceptor())
+                    .build();
+        }
+        return sharedClient;
+    }
+
+    // 요청이 커넥션을 얻은 횟수
+    public static long getConnectionsAcquired() {
+        return connectionsAcquired.get();
+    }
+
+    // 새로 TCP 커넥션을 연 횟수
+    public static long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    // 풀에서 재사용된 커넥션 비율 (0.0 ~ 1.0)
+    public static double getConnectionReuseRate() {
+        long acquired = connectionsAcquired.get();
+        if (acquired == 0) {
+            return 0.0;
+        }
+        long reused = Math.max(0, acquired - connectionsOpened.get());
+        return (double) reused / acquired;
+    }
+
+    // 캐시에서 바로 응답한 횟수
+    public static long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    // 캐시 없이 서버에서 전체 응답을 받은 횟수
+    public static long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    // ETag / If-Modified-Since 로 재검증하여 304 를 받은 횟수
+    public static long getCacheRevalidations() {
+        return cacheRevalidations.get();
+    }
+
+    // only-if-cached 요청에 캐시가 없어 504 를 받은 횟수 (미스 비율에는 포함하지 않음)
+    public static long getCacheOnlyUnsatisfied() {
+        return cacheOnlyUnsatisfied.get();
+    }
+
+    private static class CacheStatsInterceptor implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Response response = chain.proceed(chain.request());
+            Response networkResponse = response.networkResponse();
+            Response cacheResponse = response.cacheResponse();
+            if (networkResponse == null && cacheResponse == null
+                    && chain.request().cacheControl().onlyIfCached()) {
+                // 네트워크를 쓰지 않는 캐시 확인 요청이므로 미스로 세지 않는다
+                cacheOnlyUnsatisfied.incrementAndGet();
+            } else if (networkResponse == null && cacheResponse != null) {
+                cacheHits.incrementAndGet();
+            } else if (networkResponse != null && cacheResponse != null
+                    && networkResponse.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                cacheRevalidations.incrementAndGet();
+            } else {
+                cacheMisses.incrementAndGet();
+            }
+            return response;
+        }
+    }
+
+    private static class ConnectionReuseListener extends EventListener {
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectionsOpened.incrementAndGet();
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            connectionsAcquired.incrementAndGet();
+        }
+    }
+}
@@ -5,38 +5,16 @@
 package com.share.greencloud.data.api
 
 import android.app.Application
-import android.os.AsyncTask
 import androidx.lifecycle.LiveData
+import com.google.android.gms.maps.model.LatLngBounds
 import com.share.greencloud.data.db.RentalOfficeDao
 import com.share.greencloud.data.db.RentalOfficeDatabase
 import com.share.greencloud.domain.model.RentalOffice
-import timber.log.Timber
+import io.reactivex.Single
+import io.reactivex.schedulers.Schedulers
 
 class RentalOfficeKotlinRepositary {
 
-    companion object {
-        private class insertAsyncTask constructor(private val asyncTaskDao: RentalOfficeDao) :
-                AsyncTask<RentalOffice, Void, Void>() {
-            override fun doInBackground(vararg params: RentalOffice): Void? {
-                asyncTaskDao.insert(params[0])
-                return null
-            }
-        }
-
-        private class queryAsyncTask constructor(private val asyncTaskDao: RentalOfficeDao) :
-                AsyncTask<Void , Void, LiveData<List<RentalOffice>>>() {
-            override fun doInBackground(vararg params: Void?): LiveData<List<RentalOffice>> {
-                return asyncTaskDao.getAllRentalOffice()
-            }
-
-            override fun onPostExecute(result: LiveData<List<RentalOffice>>) {
-                super.onPostExecute(result)
-                Timber.d("result: %s", result.value?.size)
-            }
-        }
-
-    }
-
     private val rentalOfficeDao: RentalOfficeDao
     private var  allRentalOffice: List<RentalOffice>  = arrayListOf()
 
@@ -46,12 +24,35 @@ class RentalOfficeKotlinRepositary {
 //        allRentalOffice = rentalOfficeDao.getAllRentalOffice()
     }
 
+    // Room 이 쿼리 스레드에서 조회하므로 메인 스레드를 막지 않음
     fun getAllRentalOffices(): LiveData<List<RentalOffice>> {
-        return queryAsyncTask(rentalOfficeDao).execute().get()
+        return rentalOfficeDao.getAllRentalOffice()
+    }
+
+    // rentaloffices 테이블이 바뀔 때마다 알림 (값은 대여소 개수)
+    fun observeChanges(): LiveData<Int> {
+        return rentalOfficeDao.observeCount()
     }
 
+    // (lat, lon) 에서 가까운 대여소 k 개
+    fun nearest(lat: Double, lon: Double, k: Int): Single<List<RentalOffice>> =
+            Single.fromCallable { rentalOfficeDao.nearest(lat, lon, k) }
+                    .subscribeOn(Schedulers.io())
+
+    // 지도 화면 영역 안의 대여소
+    fun withinBounds(bounds: LatLngBounds): Single<List<RentalOffice>> =
+            Single.fromCallable { rentalOfficeDao.withinBounds(bounds) }
+                    .subscribeOn(Schedulers.io())
+
     fun insert(rentalOffice: RentalOffice) {
-        insertAsyncTask(rentalOfficeDao).execute(rentalOffice)
+        RentalOfficeDatabase.databaseWriteExecutor.execute { rentalOfficeDao.insert(rentalOffice) }
+    }
+
+    // 여러 대여소를 하나의 트랜잭션으로 저장 (LiveData 갱신도 한번만 발생)
+    fun insertAll(rentalOffices: List<RentalOffice>) {
+        if (rentalOffices.isEmpty()) return
+        val snapshot = ArrayList(rentalOffices)
+        RentalOfficeDatabase.databaseWriteExecutor.execute { rentalOfficeDao.upsertAll(snapshot) }
     }
 
 }
\ No newline at end of file
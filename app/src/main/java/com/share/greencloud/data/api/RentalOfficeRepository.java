@@ -14,29 +14,47 @@ import com.share.greencloud.utils.RxBus;
 import java.util.ArrayList;
 import java.util.List;
 
+import okhttp3.CacheControl;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 import timber.log.Timber;
 
 public class RentalOfficeRepository {
+    // 캐시가 오래되었더라도 우선 화면에 그리기 위해 사용 (이후 네트워크 재검증 결과로 갱신)
+    private static final String CACHE_ONLY = CacheControl.FORCE_CACHE.toString();
+
     private List<RentalOffice> rentalOffices = new ArrayList<>();
     private MutableLiveData<List<RentalOffice>> mutableLiveData = new MutableLiveData<>();
     private Application application;
+    private boolean staleWhileRevalidate = true;
+    private boolean networkDataLoaded;
 
     public RentalOfficeRepository(Application application) {
         this.application = application;
     }
 
+    public void setStaleWhileRevalidate(boolean staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
     public MutableLiveData<List<RentalOffice>> getMutableLiveData() {
+        networkDataLoaded = false;
+
+        if (staleWhileRevalidate) {
+            loadFromCache();
+        }
 
+        // 캐시에 ETag / Last-Modified 가 있으면 OkHttp 가 조건부 요청으로 재검증한다
+        // 다른 화면의 ViewModel 이 같은 요청을 진행 중이면 그 응답을 함께 받는다
         Call<List<RentalOffice>> call = ApiManager.getInstance().getService().getRentalOffices();
-        call.enqueue(new Callback<List<RentalOffice>>() {
+        SingleFlight.getInstance().enqueue(call, new Callback<List<RentalOffice>>() {
             @Override
             public void onResponse(Call<List<RentalOffice>> call, Response<List<RentalOffice>> response) {
                 if (response.isSuccessful()) {
                     if (response.body() != null) {
-                        Timber.d("대여소 데이터 로딩완료: %s", response.body().get(0).getOffice_location());
+                        Timber.d("대여소 데이터 로딩완료: %s", response.body().size());
+                        networkDataLoaded = true;
                         rentalOffices = response.body();
                         mutableLiveData.setValue(rentalOffices);
                     } else {
@@ -54,4 +72,24 @@ public class RentalOfficeRepository {
 
         return mutableLiveData;
     }
+
+    private void loadFromCache() {
+        Call<List<RentalOffice>> call = ApiManager.getInstance().getService().getRentalOffices(CACHE_ONLY);
+        SingleFlight.getInstance().enqueue(call, new Callback<List<RentalOffice>>() {
+            @Override
+            public void onResponse(Call<List<RentalOffice>> call, Response<List<RentalOffice>> response) {
+                // 캐시가 없으면 504 가 내려옴. 네트워크 응답이 먼저 도착했다면 무시
+                if (response.isSuccessful() && response.body() != null && !networkDataLoaded) {
+                    Timber.d("대여소 캐시 데이터 로딩완료: %s", response.body().size());
+                    rentalOffices = response.body();
+                    mutableLiveData.setValue(rentalOffices);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<List<RentalOffice>> call, Throwable t) {
+                Timber.d("대여소 캐시 데이터 없음: %s", t.getMessage());
+            }
+        });
+    }
 }
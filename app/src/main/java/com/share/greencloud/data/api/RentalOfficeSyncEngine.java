@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.data.api;
+
+import android.app.Application;
+
+import com.share.greencloud.data.db.RentalOfficeDao;
+import com.share.greencloud.data.db.RentalOfficeDatabase;
+import com.share.greencloud.domain.model.RentalOffice;
+import com.share.greencloud.domain.model.RentalOfficeDelta;
+import com.share.greencloud.utils.GreenCloudPreferences;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import retrofit2.Response;
+import timber.log.Timber;
+
+/**
+ 대여소 목록을 서버와 증분 동기화한다.
+ 마지막 동기화 커서 이후 변경/삭제된 대여소만 받아서 rentaloffices 테이블에 하나의 트랜잭션으로 반영한다.
+ 네트워크 조회는 동기화 스레드에서, DB 쓰기는 다른 쓰기와 같은 RentalOfficeDatabase.databaseWriteExecutor 에서 한다.
+
+ findRentalOffice/delta 는 서버에 아직 배포되지 않은 API 를 가정한 것이다.
+ 서버가 404 를 주면 이번 프로세스에서는 더이상 동기화하지 않는다 (대여소 목록은 기존 findRentalOffice 로 계속 받음).
+ */
+public class RentalOfficeSyncEngine {
+
+    private static RentalOfficeSyncEngine syncEngine;
+
+    private final Application application;
+    private final RentalOfficeDao rentalOfficeDao;
+    private final ExecutorService fetchExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean syncing = new AtomicBoolean(false);
+    private volatile boolean deltaApiUnavailable;
+
+    public static synchronized RentalOfficeSyncEngine getInstance(Application application) {
+        if (syncEngine == null) {
+            syncEngine = new RentalOfficeSyncEngine(application);
+        }
+        return syncEngine;
+    }
+
+    private RentalOfficeSyncEngine(Application application) {
+        this.application = application;
+        this.rentalOfficeDao = RentalOfficeDatabase.getDatabase(application).RentalOfficeDao();
+    }
+
+    // 이미 동기화 중이거나 서버에 delta API 가 없으면 무시
+    public void sync() {
+        if (deltaApiUnavailable || !syncing.compareAndSet(false, true)) {
+            return;
+        }
+        fetchExecutor.execute(() -> {
+            try {
+                long cursor = GreenCloudPreferences.getOfficeSyncCursor(application);
+                if (cursor > 0 && rentalOfficeDao.count() == 0) {
+                    // DB 가 초기화된 경우(스키마 변경 등) 전체 동기화
+                    cursor = 0;
+                }
+                final boolean replaceAll = cursor == 0;
+
+                RentalOfficeDelta delta = fetchDelta(cursor);
+                if (delta == null) {
+                    syncing.set(false);
+                    return;
+                }
+                RentalOfficeDatabase.databaseWriteExecutor.execute(() -> {
+                    try {
+                        applyDelta(delta, replaceAll);
+                    } catch (RuntimeException e) {
+                        Timber.e(e, "대여소 동기화 반영 실패");
+                    } finally {
+                        syncing.set(false);
+                    }
+                });
+            } catch (IOException e) {
+                Timber.d("대여소 동기화 실패: %s", e.getMessage());
+                syncing.set(false);
+            } catch (RuntimeException e) {
+                Timber.e(e, "대여소 동기화 실패");
+                syncing.set(false);
+            }
+        });
+    }
+
+    private RentalOfficeDelta fetchDelta(long cursor) throws IOException {
+        Response<RentalOfficeDelta> response = ApiManager.getInstance().getService().getRentalOfficeDelta(cursor).execute();
+        if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+            deltaApiUnavailable = true;
+            Timber.d("대여소 delta API 없음. 동기화 중지");
+            return null;
+        }
+        RentalOfficeDelta delta = response.body();
+        if (!response.isSuccessful() || delta == null) {
+            Timber.d("대여소 동기화 실패: %s", response.code());
+            return null;
+        }
+        return delta;
+    }
+
+    // databaseWriteExecutor 에서 실행
+    private void applyDelta(RentalOfficeDelta delta, boolean replaceAll) {
+        List<RentalOffice> changed = delta.getChanged() != null ? delta.getChanged() : Collections.emptyList();
+        List<Integer> deleted = delta.getDeleted() != null ? delta.getDeleted() : Collections.emptyList();
+        rentalOfficeDao.applyDelta(changed, deleted, replaceAll || delta.getFull());
+
+        // 트랜잭션이 성공한 뒤에만 커서를 전진
+        GreenCloudPreferences.setOfficeSyncCursor(application, delta.getCursor());
+        Timber.d("대여소 동기화 완료: 변경 %s, 삭제 %s", changed.size(), deleted.size());
+    }
+}
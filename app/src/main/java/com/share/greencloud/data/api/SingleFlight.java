@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.data.api;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Invocation;
+import retrofit2.Response;
+import timber.log.Timber;
+
+/**
+ 같은 요청(호출한 Retrofit 메소드 + HTTP 메소드 + URL + Cache-Control)이 이미 진행 중이면 새로 보내지 않고 진행 중인 요청의 응답을 함께 받는다.
+ 여러 화면이 동시에 같은 데이터를 요청해도 네트워크 요청은 한번만 나간다.
+ 성공 응답의 body 는 모든 호출자가 공유하므로 수정하지 않아야 한다. 실패 응답의 errorBody 는 한번만 읽을 수 있으므로
+ 미리 읽어 두고 호출자마다 새로 만들어 준다.
+ 콜백에는 각 호출자가 넘긴 Call 이 전달된다. 합쳐진 호출자의 Call 은 실행되지 않으므로 isExecuted() 는 false 이고,
+ cancel() 해도 진행 중인 요청은 취소되지 않는다.
+ */
+public class SingleFlight {
+
+    private static SingleFlight singleFlight;
+
+    private final Map<String, List<Waiter<?>>> inFlight = new HashMap<>();
+
+    private final AtomicLong executedCalls = new AtomicLong();
+    private final AtomicLong coalescedCalls = new AtomicLong();
+
+    // 같은 요청을 기다리는 호출자와 그 호출자가 넘긴 Call
+    private static class Waiter<T> {
+        final Call<T> call;
+        final Callback<T> callback;
+
+        Waiter(Call<T> call, Callback<T> callback) {
+            this.call = call;
+            this.callback = callback;
+        }
+    }
+
+    public static synchronized SingleFlight getInstance() {
+        if (singleFlight == null) {
+            singleFlight = new SingleFlight();
+        }
+        return singleFlight;
+    }
+
+    SingleFlight() {
+    }
+
+    /**
+     call.enqueue(callback) 와 같지만, 같은 요청이 진행 중이면 call 은 보내지 않고 진행 중인 요청의 결과를 callback 으로 전달한다.
+     GET 이 아닌 요청은 합치지 않는다.
+     */
+    public <T> void enqueue(Call<T> call, Callback<T> callback) {
+        Request request = call.request();
+        if (!"GET".equals(request.method())) {
+            executedCalls.incrementAndGet();
+            call.enqueue(callback);
+            return;
+        }
+
+        String key = keyOf(request);
+        synchronized (inFlight) {
+            List<Waiter<?>> waiting = inFlight.get(key);
+            if (waiting != null) {
+                waiting.add(new Waiter<>(call, callback));
+                coalescedCalls.incrementAndGet();
+                return;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(new Waiter<>(call, callback));
+            inFlight.put(key, waiting);
+        }
+
+        executedCalls.incrementAndGet();
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                List<Waiter<T>> waiting = complete(key);
+                if (response.isSuccessful() || response.errorBody() == null) {
+                    for (Waiter<T> waiter : waiting) {
+                        waiter.callback.onResponse(waiter.call, response);
+                    }
+                    return;
+                }
+
+                ResponseBody errorBody = response.errorBody();
+                MediaType contentType = errorBody.contentType();
+                byte[] errorBytes;
+                try {
+                    errorBytes = errorBody.bytes();
+                } catch (IOException e) {
+                    Timber.d("에러 응답 읽기 실패: %s", e.getMessage());
+                    errorBytes = new byte[0];
+                }
+                for (Waiter<T> waiter : waiting) {
+                    Response<T> copy = Response.error(ResponseBody.create(contentType, errorBytes), response.raw());
+                    waiter.callback.onResponse(waiter.call, copy);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                for (Waiter<T> waiter : complete(key)) {
+                    waiter.callback.onFailure(waiter.call, t);
+                }
+            }
+        });
+    }
+
+    // 실제로 네트워크로 보낸 요청 수
+    public long getExecutedCalls() {
+        return executedCalls.get();
+    }
+
+    // 진행 중인 요청에 합쳐져서 보내지 않은 요청 수
+    public long getCoalescedCalls() {
+        return coalescedCalls.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<Waiter<T>> complete(String key) {
+        synchronized (inFlight) {
+            List<Waiter<?>> waiting = inFlight.remove(key);
+            return waiting != null ? (List<Waiter<T>>) (List<?>) waiting : new ArrayList<>();
+        }
+    }
+
+    // 캐시 정책이 다른 요청(only-if-cached 등)은 응답이 다르므로 따로 보낸다.
+    // URL 이 같아도 Retrofit 메소드가 다르면 응답 타입이 다를 수 있으므로 (getHourlyWeatherData/getHourlyWeatherTable) 합치지 않는다
+    private static String keyOf(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        String cacheControl = request.header("Cache-Control");
+        return (invocation != null ? invocation.method().toGenericString() + " " : "")
+                + request.method() + " " + request.url() + (cacheControl != null ? " " + cacheControl : "");
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.data.api;
+
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Completable;
+import io.reactivex.Maybe;
+import io.reactivex.Scheduler;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.schedulers.Schedulers;
+import timber.log.Timber;
+
+/**
+ 날씨 응답의 2단계(메모리 + 디스크) 캐시.
+ 단기예보는 (nx, ny, base_date, base_time), 현재 날씨는 양자화한 위경도 + 시각(시)을 키로 사용하며
+ 각 항목은 다음 발표 시각까지만 유효하다. 같은 격자/발표 시각 안에서 화면을 다시 열면 네트워크 요청이 없다.
+ 메모리 조회만 호출한 스레드에서 하고, 디스크 읽기/쓰기는 io 스케줄러에서 한 뒤 결과를 메인 스레드로 전달한다.
+ */
+public class WeatherCache {
+
+    // 단기예보(동네예보)는 02시부터 3시간 간격으로 발표
+    public static final long FORECAST_INTERVAL_MILLIS = 3 * 60 * 60 * 1000L;
+    // 현재 날씨는 매시 갱신
+    public static final long CURRENT_INTERVAL_MILLIS = 60 * 60 * 1000L;
+    // 현재 날씨 키의 위경도 양자화 단위 (약 1.1km)
+    public static final double CURRENT_CELL_SIZE_DEGREES = 0.01;
+
+    private static final int MAX_MEMORY_ENTRIES = 16;
+    private static final int MAX_DISK_ENTRIES = 32;
+    private static final String CACHE_DIRECTORY_NAME = "weather";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static WeatherCache weatherCache;
+    private static File cacheDirectory;
+
+    private final File directory;
+    private final Scheduler ioScheduler;
+    private final Scheduler resultScheduler;
+    // 같은 키의 파일을 동시에 쓰거나 지우지 않도록 디스크 작업은 하나씩
+    private final Object diskLock = new Object();
+    // ForecastTable 의 빈 칸(NaN)도 저장할 수 있도록 허용
+    private final Gson gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public interface LoadCallback<T> {
+        // 캐시에 없거나 만료되었으면 null
+        void onLoaded(@Nullable T value);
+    }
+
+    private static class Entry {
+        final Object value;
+        final long expiresAt;
+
+        Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Application.onCreate 에서 호출. 호출 전에 getInstance() 를 쓰면 메모리 캐시만 사용한다.
+    public static synchronized void init(Context context) {
+        if (weatherCache == null) {
+            cacheDirectory = new File(context.getCacheDir(), CACHE_DIRECTORY_NAME);
+        }
+    }
+
+    public static synchronized WeatherCache getInstance() {
+        if (weatherCache == null) {
+            weatherCache = new WeatherCache(cacheDirectory, Schedulers.io(), AndroidSchedulers.mainThread());
+        }
+        return weatherCache;
+    }
+
+    // directory 가 null 이면 디스크 캐시를 사용하지 않는다. 디스크 결과는 resultScheduler 에서 전달된다.
+    WeatherCache(File directory, Scheduler ioScheduler, Scheduler resultScheduler) {
+        this.directory = directory;
+        this.ioScheduler = ioScheduler;
+        this.resultScheduler = resultScheduler;
+    }
+
+    // 예보는 ForecastTable 로 저장 (이전 Gson 모델로 저장된 항목과 키가 겹치지 않도록 접두어를 바꿈)
+    public static String forecastKey(String nx, String ny, String baseDate, String baseTime) {
+        return "forecastTable_" + nx + "_" + ny + "_" + baseDate + "_" + baseTime;
+    }
+
+    // 발표 시각(base_date + base_time) 으로부터 다음 발표 시각까지 유효
+    public static long forecastExpiresAt(String baseDate, String baseTime) {
+        try {
+            SimpleDateFormat format = new SimpleDateFormat("yyyyMMddHHmm", Locale.US);
+            return format.parse(baseDate + baseTime).getTime() + FORECAST_INTERVAL_MILLIS;
+        } catch (ParseException e) {
+            return 0;
+        }
+    }
+
+    public static String currentKey(double lat, double lon, long now) {
+        long latIndex = (long) Math.floor(lat / CURRENT_CELL_SIZE_DEGREES);
+        long lonIndex = (long) Math.floor(lon / CURRENT_CELL_SIZE_DEGREES);
+        String hour = new SimpleDateFormat("yyyyMMddHH", Locale.US).format(now);
+        return "current_" + latIndex + "_" + lonIndex + "_" + hour;
+    }
+
+    // 다음 정시까지 유효
+    public static long currentExpiresAt(long now) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(now);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis() + CURRENT_INTERVAL_MILLIS;
+    }
+
+    /**
+     메모리에 있는 유효한 캐시 항목을 반환한다. 디스크는 보지 않으므로 메인 스레드에서 불러도 된다.
+     만료된 항목은 지우고 null 을 반환한다.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T getFromMemory(String key, Class<T> type, long now) {
+        Entry entry = memory.get(key);
+        if (entry != null) {
+            if (entry.expiresAt > now && type.isInstance(entry.value)) {
+                memoryHits.incrementAndGet();
+                return (T) entry.value;
+            }
+            memory.remove(key);
+        }
+        return null;
+    }
+
+    /**
+     유효한 캐시 항목을 callback 으로 전달한다. 메모리에 있으면 바로 호출하고,
+     없으면 io 스케줄러에서 디스크를 읽어 메모리에 올린 뒤 결과 스케줄러(메인 스레드)에서 호출한다.
+     */
+    public <T> void get(String key, Class<T> type, long now, LoadCallback<T> callback) {
+        T cached = getFromMemory(key, type, now);
+        if (cached != null || directory == null) {
+            if (cached == null) {
+                misses.incrementAndGet();
+            }
+            callback.onLoaded(cached);
+            return;
+        }
+
+        Maybe.fromCallable(() -> readFromDisk(key, type, now))
+                .subscribeOn(ioScheduler)
+                .observeOn(resultScheduler)
+                .subscribe(value -> {
+                    diskHits.incrementAndGet();
+                    callback.onLoaded(value);
+                }, e -> {
+                    Timber.d("날씨 캐시 읽기 실패: %s", e.getMessage());
+                    misses.incrementAndGet();
+                    callback.onLoaded(null);
+                }, () -> {
+                    misses.incrementAndGet();
+                    callback.onLoaded(null);
+                });
+    }
+
+    // 메모리에 바로 넣고, 디스크에는 io 스케줄러에서 쓴다
+    public void put(String key, Object value, long expiresAt) {
+        if (value == null) {
+            return;
+        }
+        synchronized (this) {
+            // 합쳐진 요청의 호출자마다 같은 응답을 넣으므로 이미 저장된 응답이면 디스크에 다시 쓰지 않는다
+            Entry existing = memory.get(key);
+            if (existing != null && existing.value == value && existing.expiresAt == expiresAt) {
+                return;
+            }
+            putInMemory(key, new Entry(value, expiresAt));
+        }
+        if (directory == null) {
+            return;
+        }
+        Completable.fromAction(() -> writeToDisk(key, value, expiresAt))
+                .subscribeOn(ioScheduler)
+                .subscribe(() -> { }, e -> Timber.d("날씨 캐시 쓰기 실패: %s", e.getMessage()));
+    }
+
+    public void clear() {
+        synchronized (this) {
+            memory.clear();
+        }
+        if (directory == null) {
+            return;
+        }
+        Completable.fromAction(() -> {
+            synchronized (diskLock) {
+                for (File file : listFiles()) {
+                    file.delete();
+                }
+            }
+        }).subscribeOn(ioScheduler).subscribe(() -> { }, e -> Timber.d("날씨 캐시 삭제 실패: %s", e.getMessage()));
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    // this 로 동기화한 상태에서만 호출
+    private void putInMemory(String key, Entry entry) {
+        memory.put(key, entry);
+        Iterator<Map.Entry<String, Entry>> iterator = memory.entrySet().iterator();
+        while (memory.size() > MAX_MEMORY_ENTRIES && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    // 파일 형식: 첫 줄은 만료 시각(ms), 나머지는 응답 JSON. io 스케줄러에서만 호출
+    private <T> T readFromDisk(String key, Class<T> type, long now) {
+        synchronized (diskLock) {
+            return readFromDiskLocked(key, type, now);
+        }
+    }
+
+    private <T> T readFromDiskLocked(String key, Class<T> type, long now) {
+        File file = new File(directory, key);
+        if (!file.exists()) {
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8))) {
+            String header = reader.readLine();
+            long expiresAt = header != null ? Long.parseLong(header) : 0;
+            if (expiresAt <= now) {
+                file.delete();
+                return null;
+            }
+            T value = gson.fromJson(reader, type);
+            if (value != null) {
+                synchronized (this) {
+                    putInMemory(key, new Entry(value, expiresAt));
+                }
+            }
+            return value;
+        } catch (IOException | JsonParseException | NumberFormatException e) {
+            Timber.d("날씨 캐시 읽기 실패: %s", e.getMessage());
+            file.delete();
+            return null;
+        }
+    }
+
+    // io 스케줄러에서만 호출
+    private void writeToDisk(String key, Object value, long expiresAt) {
+        synchronized (diskLock) {
+            writeToDiskLocked(key, value, expiresAt);
+        }
+    }
+
+    private void writeToDiskLocked(String key, Object value, long expiresAt) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            return;
+        }
+        // 쓰는 도중 종료되어도 깨진 파일이 남지 않도록 임시 파일에 쓴 뒤 교체
+        File file = new File(directory, key);
+        File tmp = new File(directory, key + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmp), UTF_8)) {
+            writer.write(Long.toString(expiresAt));
+            writer.write('\n');
+            gson.toJson(value, writer);
+        } catch (IOException e) {
+            Timber.d("날씨 캐시 쓰기 실패: %s", e.getMessage());
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            return;
+        }
+        trimDisk();
+    }
+
+    // 오래된 파일부터 지워 MAX_DISK_ENTRIES 개 이하로 유지
+    private void trimDisk() {
+        File[] files = listFiles();
+        if (files.length <= MAX_DISK_ENTRIES) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < files.length - MAX_DISK_ENTRIES; i++) {
+            files[i].delete();
+        }
+    }
+
+    private File[] listFiles() {
+        File[] files = directory != null ? directory.listFiles() : null;
+        return files != null ? files : new File[0];
+    }
+}
@@ -9,7 +9,7 @@ import android.location.Location;
 import com.share.greencloud.common.Constants;
 import com.share.greencloud.domain.interator.WeatherCallbackListener;
 import com.share.greencloud.domain.model.CurrentWeatherModel;
-import com.share.greencloud.domain.model.HourlyWeatherForecastModel;
+import com.share.greencloud.domain.model.ForecastTable;
 import com.share.greencloud.utils.BaseTime;
 import com.share.greencloud.utils.GridxyConverter;
 
@@ -29,26 +29,43 @@ public class WeatherCondition {
         String lat  = gridXy[0];
         String lon  = gridXy[1];
 
-        ApiServices apiServices = ApiFactory.createRetrofitApi(ApiServices.class, Constants.BASE_URL, GsonConverterFactory.create());
-        Call<HourlyWeatherForecastModel> call = apiServices.getHourlyWeatherData(Constants.SERVICE_KEY,bt.getToday(),bt.getBaseTime(),lat,lon,50,
+        // 같은 격자, 같은 발표 시각의 예보는 캐시에서 응답 (디스크 캐시는 백그라운드에서 읽음)
+        final String cacheKey = WeatherCache.forecastKey(lat, lon, bt.getToday(), bt.getBaseTime());
+        final long expiresAt = WeatherCache.forecastExpiresAt(bt.getToday(), bt.getBaseTime());
+        WeatherCache.getInstance().get(cacheKey, ForecastTable.class, System.currentTimeMillis(), cached -> {
+            if (cached != null) {
+                if (listener != null)
+                    listener.getWeatherData(cached, true, "");
+                return;
+            }
+            requestHourlyForecast(bt, lat, lon, cacheKey, expiresAt, listener);
+        });
+    }
+
+    private void requestHourlyForecast(BaseTime bt, String lat, String lon, final String cacheKey, final long expiresAt,
+                                       final WeatherCallbackListener listener) {
+
+        ApiServices apiServices = ApiFactory.createRetrofitApi(ApiServices.class, Constants.BASE_URL,
+                ForecastTableConverterFactory.create(GsonConverterFactory.create()));
+        Call<ForecastTable> call = apiServices.getHourlyWeatherTable(Constants.SERVICE_KEY,bt.getToday(),bt.getBaseTime(),lat,lon,50,
                 1,"json");
 
         //if (Constants.MODE == Constants.MODE.DEBUG)  {
             HttpUrl httpUrl = call.request().url();
         //}
 
-        call.enqueue(new Callback<HourlyWeatherForecastModel>() {
+        // 여러 생명주기 콜백에서 동시에 요청해도 네트워크 요청은 한번만 보낸다
+        SingleFlight.getInstance().enqueue(call, new Callback<ForecastTable>() {
             @Override
-            public void onResponse(Call<HourlyWeatherForecastModel> call, Response<HourlyWeatherForecastModel> response) {
+            public void onResponse(Call<ForecastTable> call, Response<ForecastTable> response) {
 
                 if (response.isSuccessful()) {
 
-                    String resultCode = response.body().getResonse().getHeader().getResultCode();
-                    if (resultCode.equals("0000")) {
+                    ForecastTable table = response.body();
+                    if (table != null && "0000".equals(table.getResultCode())) {
+                        WeatherCache.getInstance().put(cacheKey, table, expiresAt);
                         if (listener != null)
-                            listener.getWeatherData(response.body().getResonse().getBody(), true, "");
-                    } else {
-                        //listener.getWeatherData(response.body().getResonse().getBody(), true, "");
+                            listener.getWeatherData(table, true, "");
                     }
                 }else {
                     listener.getWeatherData(null, false, response.message());
@@ -56,7 +73,7 @@ public class WeatherCondition {
             }
 
             @Override
-            public void onFailure(Call<HourlyWeatherForecastModel> call, Throwable t) {
+            public void onFailure(Call<ForecastTable> call, Throwable t) {
                 if (listener != null)
                     listener.getWeatherData(null, false, t.getMessage());
             }
@@ -71,6 +88,23 @@ public class WeatherCondition {
         String lat = String.valueOf(location.getLatitude());
         String lon = String.valueOf(location.getLongitude());
 
+        // 약 1km 이내, 같은 시각(시)의 현재 날씨는 캐시에서 응답 (디스크 캐시는 백그라운드에서 읽음)
+        long now = System.currentTimeMillis();
+        final String cacheKey = WeatherCache.currentKey(location.getLatitude(), location.getLongitude(), now);
+        final long expiresAt = WeatherCache.currentExpiresAt(now);
+        WeatherCache.getInstance().get(cacheKey, CurrentWeatherModel.class, now, cached -> {
+            if (cached != null) {
+                if (listener != null)
+                    listener.getWeatherData(cached.getWeather(), true, "");
+                return;
+            }
+            requestCurrentWeather(lat, lon, cacheKey, expiresAt, listener);
+        });
+    }
+
+    private void requestCurrentWeather(String lat, String lon, final String cacheKey, final long expiresAt,
+                                       final WeatherCallbackListener listener) {
+
         ApiServices apiServices = ApiFactory.createRetrofitApi(ApiServices.class, Constants.CURRENT_WEATHER_BASE_URL, GsonConverterFactory.create());
 
         Call<CurrentWeatherModel> call = apiServices.getCurrentWeatherData(Constants.CURRENT_WEATHER_API_KEY,1,lat,lon,"json");
@@ -79,7 +113,8 @@ public class WeatherCondition {
             HttpUrl httpUrl = call.request().url();
         //}
 
-        call.enqueue(new Callback<CurrentWeatherModel>() {
+        // 여러 생명주기 콜백에서 동시에 요청해도 네트워크 요청은 한번만 보낸다
+        SingleFlight.getInstance().enqueue(call, new Callback<CurrentWeatherModel>() {
             @Override
             public void onResponse(Call<CurrentWeatherModel> call, Response<CurrentWeatherModel> response) {
 
@@ -88,6 +123,7 @@ public class WeatherCondition {
                     String resultMsg = response.body().getResult().getMessage();
 
                     if (resultCode.equals("9200")) {
+                        WeatherCache.getInstance().put(cacheKey, response.body(), expiresAt);
                         if (listener != null)
                             listener.getWeatherData(response.body().getWeather(), true, "");
                     } else {
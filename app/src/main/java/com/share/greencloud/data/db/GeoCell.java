@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.data.db;
+
+/**
+ 위도/경도를 고정 크기 격자 셀 번호로 변환한다 (geohash 와 같은 역할).
+ rentaloffices.geo_cell 컬럼에 인덱스를 걸어 주변 셀만 조회하는데 사용한다.
+ */
+public final class GeoCell {
+
+    // 셀 크기 (약 1.1km)
+    public static final double CELL_SIZE_DEGREES = 0.01;
+
+    private static final long LON_CELLS = (long) Math.ceil(360.0 / CELL_SIZE_DEGREES) + 1;
+
+    private GeoCell() {
+    }
+
+    public static int latIndex(double lat) {
+        return (int) Math.floor((clampLat(lat) + 90.0) / CELL_SIZE_DEGREES);
+    }
+
+    public static int lonIndex(double lon) {
+        return (int) Math.floor((normalizeLon(lon) + 180.0) / CELL_SIZE_DEGREES);
+    }
+
+    public static long of(int latIndex, int lonIndex) {
+        return latIndex * LON_CELLS + lonIndex;
+    }
+
+    public static long of(double lat, double lon) {
+        return of(latIndex(lat), lonIndex(lon));
+    }
+
+    /**
+     남서/북동 꼭지점으로 주어진 영역을 덮는 셀 목록. 셀 개수가 maxCells 를 넘으면 null 을 반환한다.
+     경도 180도를 가로지르는 영역은 지원하지 않으므로 null 을 반환한다.
+     */
+    public static long[] cellsCovering(double south, double west, double north, double east, int maxCells) {
+        if (west > east || south > north) {
+            return null;
+        }
+        int minLat = latIndex(south);
+        int maxLat = latIndex(north);
+        int minLon = lonIndex(west);
+        int maxLon = lonIndex(east);
+        long count = (long) (maxLat - minLat + 1) * (maxLon - minLon + 1);
+        if (count > maxCells) {
+            return null;
+        }
+        long[] cells = new long[(int) count];
+        int i = 0;
+        for (int latIdx = minLat; latIdx <= maxLat; latIdx++) {
+            for (int lonIdx = minLon; lonIdx <= maxLon; lonIdx++) {
+                cells[i++] = of(latIdx, lonIdx);
+            }
+        }
+        return cells;
+    }
+
+    // 경도 1도의 길이를 위도 1도 기준으로 환산한 비율 (정거원통 근사 거리 계산용)
+    public static double lonScale(double lat) {
+        double cos = Math.cos(Math.toRadians(lat));
+        return cos * cos;
+    }
+
+    // 정렬용 근사 거리의 제곱 (단위: 위도 degree^2)
+    public static double squaredDistance(double lat, double lon, double lonScale, double otherLat, double otherLon) {
+        double dLat = otherLat - lat;
+        double dLon = otherLon - lon;
+        return dLat * dLat + dLon * dLon * lonScale;
+    }
+
+    private static double clampLat(double lat) {
+        return Math.max(-90.0, Math.min(90.0, lat));
+    }
+
+    private static double normalizeLon(double lon) {
+        if (lon >= -180.0 && lon < 180.0) {
+            return lon;
+        }
+        return ((lon + 180.0) % 360.0 + 360.0) % 360.0 - 180.0;
+    }
+}
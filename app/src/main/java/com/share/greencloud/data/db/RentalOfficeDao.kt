@@ -4,23 +4,140 @@
 
 package com.share.greencloud.data.db
 
+import androidx.annotation.WorkerThread
 import androidx.lifecycle.LiveData
+import androidx.room.ColumnInfo
 import androidx.room.Dao
 import androidx.room.Insert
 import androidx.room.OnConflictStrategy
 import androidx.room.Query
+import androidx.room.Transaction
+import com.google.android.gms.maps.model.LatLngBounds
 import com.share.greencloud.domain.model.RentalOffice
 
 @Dao
-interface RentalOfficeDao {
+abstract class RentalOfficeDao {
 
     //    ORDER BY office_id ASC
     @Query("SELECT * from rentaloffices ORDER BY distance ASC")
-    fun getAllRentalOffice(): LiveData<List<RentalOffice>>
+    abstract fun getAllRentalOffice(): LiveData<List<RentalOffice>>
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    fun insert(rentalOffice: RentalOffice)
+    abstract fun insert(rentalOffice: RentalOffice)
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    abstract fun upsertAll(rentalOffices: List<RentalOffice>)
+
+    @Query("DELETE FROM rentaloffices WHERE office_id IN (:officeIds)")
+    abstract fun deleteByIds(officeIds: List<Int>)
 
     @Query("DELETE FROM rentaloffices")
-    fun deleteAll()
-}
\ No newline at end of file
+    abstract fun deleteAll()
+
+    @Query("SELECT COUNT(*) FROM rentaloffices")
+    abstract fun count(): Int
+
+    @Query("SELECT office_id, distance FROM rentaloffices WHERE office_id IN (:officeIds)")
+    abstract fun findDistances(officeIds: List<Int>): List<OfficeDistance>
+
+    // 테이블이 바뀔 때마다 (insertAll, 동기화 등) 값을 다시 내보낸다. 전체 목록 대신 개수만 조회
+    @Query("SELECT COUNT(*) FROM rentaloffices")
+    abstract fun observeCount(): LiveData<Int>
+
+    @Query("SELECT * FROM rentaloffices WHERE geo_cell IN (:cells) AND lat BETWEEN :south AND :north AND lon BETWEEN :west AND :east")
+    abstract fun findInCells(cells: LongArray, south: Double, west: Double, north: Double, east: Double): List<RentalOffice>
+
+    @Query("SELECT * FROM rentaloffices WHERE lat BETWEEN :south AND :north AND lon BETWEEN :west AND :east")
+    abstract fun findInRange(south: Double, west: Double, north: Double, east: Double): List<RentalOffice>
+
+    // 경도 180도를 가로지르는 영역
+    @Query("SELECT * FROM rentaloffices WHERE lat BETWEEN :south AND :north AND (lon >= :west OR lon <= :east)")
+    abstract fun findInRangeAcrossAntimeridian(south: Double, west: Double, north: Double, east: Double): List<RentalOffice>
+
+    @Query("SELECT * FROM rentaloffices ORDER BY ((lat - :lat) * (lat - :lat) + (lon - :lon) * (lon - :lon) * :lonScale) LIMIT :k")
+    abstract fun findNearestByScan(lat: Double, lon: Double, lonScale: Double, k: Int): List<RentalOffice>
+
+    // 화면 영역 안의 대여소. 주변 셀만 인덱스로 조회하고, 영역이 너무 넓으면 위도 인덱스 범위 조회로 대체
+    @WorkerThread
+    open fun withinBounds(bounds: LatLngBounds): List<RentalOffice> {
+        val south = bounds.southwest.latitude
+        val west = bounds.southwest.longitude
+        val north = bounds.northeast.latitude
+        val east = bounds.northeast.longitude
+        if (west > east) {
+            return findInRangeAcrossAntimeridian(south, west, north, east)
+        }
+        val cells = GeoCell.cellsCovering(south, west, north, east, MAX_QUERY_CELLS)
+                ?: return findInRange(south, west, north, east)
+        return findInCells(cells, south, west, north, east)
+    }
+
+    // (lat, lon) 에서 가까운 순서로 최대 k 개. 셀 반경을 두배씩 넓혀가며 찾고, 범위를 넘으면 전체 정렬로 대체
+    @WorkerThread
+    open fun nearest(lat: Double, lon: Double, k: Int): List<RentalOffice> {
+        if (k <= 0) return emptyList()
+        val lonScale = GeoCell.lonScale(lat)
+        val comparator = compareBy<RentalOffice> { GeoCell.squaredDistance(lat, lon, lonScale, it.lat, it.lon) }
+
+        var radius = 1
+        while ((2 * radius + 1) * (2 * radius + 1) <= MAX_QUERY_CELLS) {
+            val span = radius * GeoCell.CELL_SIZE_DEGREES
+            val lonSpan = span / Math.sqrt(lonScale)
+            val found = findInCells(
+                    GeoCell.cellsCovering(lat - span, lon - lonSpan, lat + span, lon + lonSpan, MAX_QUERY_CELLS)
+                            ?: break,
+                    lat - span, lon - lonSpan, lat + span, lon + lonSpan)
+            if (found.size >= k) {
+                val sorted = found.sortedWith(comparator)
+                // 검색한 정사각형에 내접하는 원 안에 k 번째가 있으면 그보다 가까운 대여소는 모두 찾은 것
+                if (GeoCell.squaredDistance(lat, lon, lonScale, sorted[k - 1].lat, sorted[k - 1].lon) <= span * span) {
+                    return sorted.subList(0, k)
+                }
+            }
+            radius *= 2
+        }
+        return findNearestByScan(lat, lon, lonScale, k)
+    }
+
+    // 서버에서 받은 변경분을 하나의 트랜잭션으로 반영
+    @Transaction
+    open fun applyDelta(changed: List<RentalOffice>, deletedIds: List<Int>, replaceAll: Boolean) {
+        // 서버 응답에는 distance 가 없으므로 REPLACE 로 덮어쓰기 전에 기존 거리 값을 옮겨둔다 (ORDER BY distance 유지)
+        if (changed.isNotEmpty()) {
+            val distances = HashMap<Int, Int>()
+            for (ids in changed.map { it.office_id }.chunked(MAX_BIND_ARGS)) {
+                for (known in findDistances(ids)) {
+                    distances[known.officeId] = known.distance
+                }
+            }
+            for (office in changed) {
+                distances[office.office_id]?.let { office.distance = it }
+            }
+        }
+
+        if (replaceAll) {
+            deleteAll()
+        } else {
+            for (ids in deletedIds.chunked(MAX_BIND_ARGS)) {
+                deleteByIds(ids)
+            }
+        }
+        if (changed.isNotEmpty()) {
+            upsertAll(changed)
+        }
+    }
+
+    companion object {
+        // IN (...) 한번에 바인딩할 최대 id 수 (SQLite 바인딩 변수 제한 999 이하)
+        const val MAX_BIND_ARGS = 900
+
+        // SQLite 바인딩 변수 제한(999) 안에서 한번에 조회할 최대 셀 수
+        const val MAX_QUERY_CELLS = 225
+    }
+}
+
+// 거리 값만 읽기 위한 projection
+data class OfficeDistance(
+        @ColumnInfo(name = "office_id") val officeId: Int,
+        @ColumnInfo(name = "distance") val distance: Int
+)
@@ -9,14 +9,20 @@ import androidx.room.Database
 import androidx.room.Room
 import androidx.room.RoomDatabase
 import com.share.greencloud.domain.model.RentalOffice
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
 
-@Database(entities = [RentalOffice::class], version = 2, exportSchema = false)
+@Database(entities = [RentalOffice::class], version = 4, exportSchema = false)
 abstract class RentalOfficeDatabase : RoomDatabase() {
 
     companion object {
         @Volatile
         private var INSTANCE: RentalOfficeDatabase? = null
 
+        // DB 쓰기 전용 스레드 (쓰기 순서 보장)
+        @JvmField
+        val databaseWriteExecutor: ExecutorService = Executors.newSingleThreadExecutor()
+
         fun getDatabase(context: Context): RentalOfficeDatabase {
             if (INSTANCE == null) {
                 synchronized(this) {
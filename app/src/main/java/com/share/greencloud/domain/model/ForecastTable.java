@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.domain.model;
+
+import java.util.Arrays;
+
+/**
+ 동네예보(ForecastSpaceData) 응답을 예보 시각(slot) x 항목(category) 의 float 배열 하나에 담은 표.
+ slot 은 응답에 나온 순서대로 추가되며, 값이 없는 칸은 NaN 이다.
+ slot 은 예보 시각(fcstDate, fcstTime)으로만 구분하므로 표 하나에는 한 격자(nx, ny)의 예보만 담는다.
+ 같은 격자의 여러 페이지는 이어서 읽을 수 있고, 다른 격자를 읽을 때는 clear() 후 재사용하면 배열을 다시 만들지 않는다.
+ */
+public final class ForecastTable {
+
+    // 동네예보 항목 코드
+    public enum Category {
+        POP, // 강수확률(%)
+        PTY, // 강수형태(코드)
+        R06, // 6시간 강수량
+        REH, // 습도(%)
+        S06, // 6시간 신적설
+        SKY, // 하늘상태(코드)
+        T3H, // 3시간 기온
+        TMN, // 아침 최저기온
+        TMX, // 낮 최고기온
+        UUU, // 풍속(동서성분)
+        VVV, // 풍속(남북성분)
+        WAV, // 파고
+        VEC, // 풍향
+        WSD; // 풍속
+
+        private static final Category[] VALUES = values();
+
+        // 알 수 없는 코드면 null
+        public static Category of(String code) {
+            for (Category category : VALUES) {
+                if (category.name().equals(code)) {
+                    return category;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final int CATEGORY_COUNT = Category.VALUES.length;
+    private static final int INITIAL_SLOTS = 16;
+
+    private String resultCode;
+    private int totalCount;
+    private int slotCount;
+    private int[] dates = new int[INITIAL_SLOTS];
+    private int[] times = new int[INITIAL_SLOTS];
+    private float[] values = newValues(INITIAL_SLOTS);
+
+    public String getResultCode() {
+        return resultCode;
+    }
+
+    public void setResultCode(String resultCode) {
+        this.resultCode = resultCode;
+    }
+
+    // 모든 페이지의 항목 수 (페이지를 나눠 받을 때 사용)
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(int totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    // 예보 날짜 (yyyyMMdd)
+    public int getDate(int slot) {
+        return dates[slot];
+    }
+
+    // 예보 시각 (HHmm, 예: 900 = 09시)
+    public int getTime(int slot) {
+        return times[slot];
+    }
+
+    public float get(int slot, Category category) {
+        return values[slot * CATEGORY_COUNT + category.ordinal()];
+    }
+
+    public boolean has(int slot, Category category) {
+        return !Float.isNaN(get(slot, category));
+    }
+
+    // 해당 시각의 slot, 없으면 -1
+    public int slotOf(int date, int time) {
+        // 응답은 시각 순서로 오므로 뒤에서부터 찾는다
+        for (int slot = slotCount - 1; slot >= 0; slot--) {
+            if (dates[slot] == date && times[slot] == time) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    public void put(int date, int time, Category category, float value) {
+        int slot = slotOf(date, time);
+        if (slot < 0) {
+            slot = addSlot(date, time);
+        }
+        values[slot * CATEGORY_COUNT + category.ordinal()] = value;
+    }
+
+    public void clear() {
+        resultCode = null;
+        totalCount = 0;
+        Arrays.fill(values, 0, slotCount * CATEGORY_COUNT, Float.NaN);
+        slotCount = 0;
+    }
+
+    private int addSlot(int date, int time) {
+        if (slotCount == dates.length) {
+            int capacity = slotCount * 2;
+            dates = Arrays.copyOf(dates, capacity);
+            times = Arrays.copyOf(times, capacity);
+            float[] grown = newValues(capacity);
+            System.arraycopy(values, 0, grown, 0, slotCount * CATEGORY_COUNT);
+            values = grown;
+        }
+        dates[slotCount] = date;
+        times[slotCount] = time;
+        return slotCount++;
+    }
+
+    private static float[] newValues(int slots) {
+        float[] values = new float[slots * CATEGORY_COUNT];
+        Arrays.fill(values, Float.NaN);
+        return values;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.domain.model;
+
+import java.util.Arrays;
+
+/**
+ 날씨 화면에 표시하는 시간대별 예보 (하늘상태, 강수형태, 강수확률 중 하나라도 있는 앞쪽 최대 SLOT_COUNT 개 예보 시각).
+ 각 시각마다 하늘상태, 강수형태, 강수확률을 코드값 대신 enum / int 로 가진다.
+ */
+public final class ForecastTimeline {
+
+    public static final int SLOT_COUNT = 5;
+
+    // 강수확률이 없는 시각
+    public static final int NO_POP = -1;
+
+    // 하늘상태 (SKY 코드)
+    public enum Sky {
+        UNKNOWN, SUNNY, PARTLY_CLOUDY, MOSTLY_CLOUDY, CLOUDY;
+
+        public static Sky of(int code) {
+            switch (code) {
+                case 1:
+                    return SUNNY;
+                case 2:
+                    return PARTLY_CLOUDY;
+                case 3:
+                    return MOSTLY_CLOUDY;
+                case 4:
+                    return CLOUDY;
+                default:
+                    return UNKNOWN;
+            }
+        }
+    }
+
+    // 강수형태 (PTY 코드)
+    public enum Precipitation {
+        NONE, RAIN, RAIN_SNOW, SNOW;
+
+        public static Precipitation of(int code) {
+            switch (code) {
+                case 1:
+                    return RAIN;
+                case 2:
+                    return RAIN_SNOW;
+                case 3:
+                    return SNOW;
+                default:
+                    return NONE;
+            }
+        }
+    }
+
+    private final int size;
+    private final int[] times;
+    private final Sky[] skies;
+    private final Precipitation[] precipitations;
+    private final int[] pops;
+
+    private ForecastTimeline(Builder builder) {
+        size = builder.size;
+        times = Arrays.copyOf(builder.times, size);
+        skies = Arrays.copyOf(builder.skies, size);
+        precipitations = Arrays.copyOf(builder.precipitations, size);
+        pops = Arrays.copyOf(builder.pops, size);
+    }
+
+    // ForecastTable 의 앞쪽 시각들로 만든다. 기온(T3H, TMN, TMX)만 있는 시각은 건너뛰고 SLOT_COUNT 개가 찰 때까지 찾는다
+    public static ForecastTimeline of(ForecastTable table) {
+        Builder builder = new Builder();
+        for (int slot = 0; slot < table.getSlotCount() && builder.size < SLOT_COUNT; slot++) {
+            int date = table.getDate(slot);
+            int time = table.getTime(slot);
+            addIfPresent(builder, table, slot, date, time, ForecastTable.Category.SKY);
+            addIfPresent(builder, table, slot, date, time, ForecastTable.Category.PTY);
+            addIfPresent(builder, table, slot, date, time, ForecastTable.Category.POP);
+        }
+        return builder.build();
+    }
+
+    private static void addIfPresent(Builder builder, ForecastTable table, int slot, int date, int time,
+                                     ForecastTable.Category category) {
+        if (table.has(slot, category)) {
+            builder.add(date, time, category, table.get(slot, category));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // 예보 시각 (HHmm)
+    public int getTime(int slot) {
+        return times[slot];
+    }
+
+    public Sky getSky(int slot) {
+        return skies[slot];
+    }
+
+    public Precipitation getPrecipitation(int slot) {
+        return precipitations[slot];
+    }
+
+    // 강수확률(%), 없으면 NO_POP
+    public int getPop(int slot) {
+        return pops[slot];
+    }
+
+    // 비/눈 예보가 있으면 하늘상태 대신 강수형태를 보여준다
+    public boolean isPrecipitating(int slot) {
+        return precipitations[slot] != Precipitation.NONE;
+    }
+
+    /**
+     예보 항목을 응답 순서대로 받아 한번에 시각별로 묶는다. 같은 예보 시각의 항목은 연속해서 온다고 가정하고,
+     SLOT_COUNT 번째 이후 시각의 항목은 무시한다.
+     */
+    public static final class Builder {
+        private int size;
+        private int lastDate = -1;
+        private int lastTime = -1;
+        private final int[] times = new int[SLOT_COUNT];
+        private final Sky[] skies = new Sky[SLOT_COUNT];
+        private final Precipitation[] precipitations = new Precipitation[SLOT_COUNT];
+        private final int[] pops = new int[SLOT_COUNT];
+
+        public Builder add(int fcstDate, int fcstTime, ForecastTable.Category category, float value) {
+            if (fcstDate != lastDate || fcstTime != lastTime) {
+                if (size == SLOT_COUNT) {
+                    return this;
+                }
+                lastDate = fcstDate;
+                lastTime = fcstTime;
+                times[size] = fcstTime;
+                skies[size] = Sky.UNKNOWN;
+                precipitations[size] = Precipitation.NONE;
+                pops[size] = NO_POP;
+                size++;
+            }
+
+            int slot = size - 1;
+            switch (category) {
+                case SKY:
+                    skies[slot] = Sky.of((int) value);
+                    break;
+                case PTY:
+                    precipitations[slot] = Precipitation.of((int) value);
+                    break;
+                case POP:
+                    pops[slot] = (int) value;
+                    break;
+                default:
+                    break;
+            }
+            return this;
+        }
+
+        public ForecastTimeline build() {
+            return new ForecastTimeline(this);
+        }
+    }
+}
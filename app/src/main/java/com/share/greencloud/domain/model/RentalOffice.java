@@ -6,14 +6,16 @@ package com.share.greencloud.domain.model;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import com.google.gson.annotations.SerializedName;
+import com.share.greencloud.data.db.GeoCell;
 import com.share.greencloud.presentation.adapter.DynamicSearchAdapter;
 
 import org.jetbrains.annotations.NotNull;
 
-@Entity(tableName = "rentaloffices")
+@Entity(tableName = "rentaloffices", indices = {@Index("geo_cell"), @Index("lat")})
 public class RentalOffice implements DynamicSearchAdapter.Searchable{
     @PrimaryKey
     @SerializedName("office_id")
@@ -34,6 +36,12 @@ public class RentalOffice implements DynamicSearchAdapter.Searchable{
     @SerializedName("umbrella_count")
     @ColumnInfo(name = "umbrella_count")
     private int umbrella_count;
+    @SerializedName("updated_at")
+    @ColumnInfo(name = "updated_at")
+    private long updated_at;
+    // 공간 인덱스용 격자 셀 번호. 항상 lat/lon 에서 계산되므로 서버 응답에는 없음
+    @ColumnInfo(name = "geo_cell")
+    private transient long geo_cell;
 
     private int distance;
 
@@ -61,6 +69,14 @@ public class RentalOffice implements DynamicSearchAdapter.Searchable{
         return umbrella_count;
     }
 
+    public long getUpdated_at() {
+        return updated_at;
+    }
+
+    public long getGeo_cell() {
+        return GeoCell.of(lat, lon);
+    }
+
     public int getDistance() {
         return distance;
     }
@@ -89,10 +105,27 @@ public class RentalOffice implements DynamicSearchAdapter.Searchable{
         this.umbrella_count = umbrella_count;
     }
 
+    public void setUpdated_at(long updated_at) {
+        this.updated_at = updated_at;
+    }
+
+    public void setGeo_cell(long geo_cell) {
+        this.geo_cell = geo_cell;
+    }
+
     public void setDistance(int distance) {
         this.distance = distance;
     }
 
+    // 거리만 다른 사본. 여러 화면이 함께 받은 응답의 대여소는 수정하지 않는다
+    public RentalOffice withDistance(int distance) {
+        RentalOffice copy = new RentalOffice(office_id, office_name, office_location, lat, lon, umbrella_count);
+        copy.updated_at = updated_at;
+        copy.geo_cell = geo_cell;
+        copy.distance = distance;
+        return copy;
+    }
+
     @NotNull
     @Override
     public String getSearchCriteria() {
@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.domain.model
+
+import com.google.gson.annotations.SerializedName
+
+// since 커서 이후 변경/삭제된 대여소 목록
+data class RentalOfficeDelta(
+        @SerializedName("changed")
+        var changed: List<RentalOffice>?,
+        @SerializedName("deleted")
+        var deleted: List<Int>?,
+        @SerializedName("cursor")
+        var cursor: Long,
+        @SerializedName("full")
+        var full: Boolean
+)
@@ -7,7 +7,6 @@ package com.share.greencloud.presentation.fragment;
 import android.Manifest;
 import android.content.Context;
 import android.content.pm.PackageManager;
-import android.graphics.Color;
 import android.location.Address;
 import android.location.Location;
 import android.os.Bundle;
@@ -23,7 +22,6 @@ import androidx.databinding.DataBindingUtil;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProviders;
 
-import com.exlyo.gmfmt.MarkerInfo;
 import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.MapsInitializer;
@@ -32,7 +30,6 @@ import com.google.android.gms.maps.model.Circle;
 import com.google.android.gms.maps.model.CircleOptions;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
-import com.google.android.gms.maps.model.MarkerOptions;
 import com.patloew.rxlocation.RxLocation;
 import com.share.greencloud.R;
 import com.share.greencloud.databinding.FragmentMapBinding;
@@ -42,12 +39,11 @@ import com.share.greencloud.presentation.activity.MainActivity;
 import com.share.greencloud.presentation.presenter.LocationPresenter;
 import com.share.greencloud.presentation.viewmodel.MapFragmentViewModel;
 import com.share.greencloud.presentation.viewmodel.SharedViewModel;
+import com.share.greencloud.utils.OfficeClusterer;
 import com.tbruyelle.rxpermissions2.RxPermissions;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import timber.log.Timber;
@@ -70,8 +66,11 @@ public class MapFragment extends Fragment implements OnMapReadyCallback, Locatio
     private LocationPresenter presenter;
 
     private MapFragmentViewModel viewModel;
+    private RentalOfficeMarkerManager markerManager;
     Circle mapCircle;
 
+    private TextView tv_rental_spot_name, tv_rental_spot_location, tv_um_count, tv_rental_spot_distance, tv_rental_spot_id;
+
     private SharedViewModel sharedViewModel;
 
     public MapFragment() {
@@ -124,6 +123,7 @@ public class MapFragment extends Fragment implements OnMapReadyCallback, Locatio
 //            viewModel.makeRentalOfficeMarkers(rentalOffices);
 //        });
         viewModel.makeRentalOfficeMarkers(fetchOfficeInfo());
+        viewModel.syncRentalOffices();
 
     }
 
@@ -206,6 +206,13 @@ public class MapFragment extends Fragment implements OnMapReadyCallback, Locatio
 
         Timber.d("onViewCreated is called");
         presenter.attachView(this);
+
+        // 첫 실행 시 카메라가 멈춘 뒤에 Room 이 채워질 수 있으므로 테이블이 바뀌면 화면 영역 마커를 다시 조회
+        viewModel.getRentalOfficeTableChanges().observe(getViewLifecycleOwner(), count -> {
+            if (markerManager != null && markerManager.isAttachedTo(mMap)) {
+                markerManager.refresh();
+            }
+        });
     }
 
     @Override
@@ -236,6 +243,7 @@ public class MapFragment extends Fragment implements OnMapReadyCallback, Locatio
         super.onDetach();
 
         Timber.d("onDetach is called");
+        tv_rental_spot_name = null;
 //        mListener = null;
     }
 
@@ -291,6 +299,10 @@ public class MapFragment extends Fragment implements OnMapReadyCallback, Locatio
         super.onDestroyView();
 
         Timber.d("onDestroyView is called");
+        if (markerManager != null) {
+            markerManager.clear();
+            markerManager = null;
+        }
         if (mMap != null) {
             mMap.clear();
         }
@@ -371,27 +383,20 @@ public class MapFragment extends Fragment implements OnMapReadyCallback, Locatio
     }
 
 
+    // 화면 영역 안의 대여소만 마커로 표시하도록 마커 매니저 연결
     private void addRentalOfficeMarker() {
 
-        List<Marker> markers = new ArrayList<>();
-        List<MarkerOptions> markerOptions = viewModel.getMarkerOptionsList();
-        final int color = Color.GREEN;
-        MarkerInfo mi;
-
-        binding.mapFloatingMarkersOverlay.setSource(mMap); // mapFloatingMarkersOverlay 초기화
-
-        // 대여소 Marker 및 Infpwindo 표시
-        for (int i = 0; i < markerOptions.size(); ++i) {
-
-            // Marker와 Infopwindow 연결
-            mi = new MarkerInfo(markerOptions.get(i).getPosition(), markerOptions.get(i).getTitle(), color);
-            markers.add(mMap.addMarker(new MarkerOptions().position(mi.getCoordinates())));
-            binding.mapFloatingMarkersOverlay.addMarker(i, mi);
-
-            // 대여소 Marker
-            markers.add(mMap.addMarker(markerOptions.get(i)));
+        if (markerManager != null && markerManager.isAttachedTo(mMap)) {
+            markerManager.refresh();
+            return;
         }
 
+        binding.mapFloatingMarkersOverlay.setSource(mMap); // mapFloatingMarkersOverlay 초기화
+        // 오버레이는 카메라가 멈춰 있으면 다시 그리지 않으므로 카메라 이동을 알려준다
+        mMap.setOnCameraMoveListener(binding.mapFloatingMarkersOverlay::notifyCameraMoved);
+        markerManager = new RentalOfficeMarkerManager(mMap, binding.mapFloatingMarkersOverlay,
+                viewModel::getRentalOfficesWithinBounds);
+        mMap.setOnCameraIdleListener(markerManager);
     }
 
     @Override
@@ -417,33 +422,46 @@ public class MapFragment extends Fragment implements OnMapReadyCallback, Locatio
     @Override
     public boolean onMarkerClick(Marker marker) {
 
-        TextView tv_rental_spot_name = ((MainActivity) getActivity()).findViewById(R.id.tv_spot_name);
-        TextView tv_rental_spot_location = ((MainActivity) getActivity()).findViewById(R.id.tv_spot_location);
-        TextView tv_um_count = ((MainActivity) getActivity()).findViewById(R.id.tv_um_count);
-        TextView tv_rental_spot_distance = ((MainActivity) getActivity()).findViewById(R.id.tv_spot_distance);
-        TextView tv_rental_spot_id = getActivity().findViewById(R.id.tv_spot_id);
-
-        // 클릭된 마커를 구분하기 위하여 위치정보를 로딩
-        LatLng marker_position = marker.getPosition();
-
-        List<RentalOffice> rentalOfficeArrayList = viewModel.getRentalOffice();
-        for (RentalOffice rentalOffice : rentalOfficeArrayList) {
-            LatLng officePosition = new LatLng(rentalOffice.getLat(), rentalOffice.getLon());
-            // 대여소 정보 리스트에서 위치정보를 동일한 대여소의 정보를 보여준다
-            if (marker_position.equals(officePosition)) {
-                tv_rental_spot_name.setText(rentalOffice.getOffice_name());
-                tv_rental_spot_location.setText(rentalOffice.getOffice_location());
-                tv_um_count.setText(String.valueOf(rentalOffice.getUmbrella_count()));
-                tv_rental_spot_distance.setText("현재 위치에서 " + addDistanceSign(rentalOffice.getDistance()));
-                tv_rental_spot_id.setText(String.valueOf(rentalOffice.getOffice_id()));
-
-                ((MainActivity) getActivity()).showBottomSlide();
-                mMap.moveCamera(CameraUpdateFactory.newLatLngZoom(new LatLng(rentalOffice.getLat(), rentalOffice.getLon()), DEFAULT_ZOOM));
-            }
+        // 클러스터 마커는 해당 위치로 확대
+        if (marker.getTag() instanceof OfficeClusterer.Cluster) {
+            mMap.animateCamera(CameraUpdateFactory.newLatLngZoom(marker.getPosition(), mMap.getCameraPosition().zoom + 2));
+            return true;
+        }
+
+        // 마커 태그(office_id)로 대여소를 바로 찾음
+        if (!(marker.getTag() instanceof Integer)) {
+            return true;
         }
+        RentalOffice rentalOffice = viewModel.findRentalOffice((Integer) marker.getTag());
+        if (rentalOffice == null) {
+            return true;
+        }
+
+        bindRentalSpotViews();
+        tv_rental_spot_name.setText(rentalOffice.getOffice_name());
+        tv_rental_spot_location.setText(rentalOffice.getOffice_location());
+        tv_um_count.setText(String.valueOf(rentalOffice.getUmbrella_count()));
+        tv_rental_spot_distance.setText("현재 위치에서 " + addDistanceSign(rentalOffice.getDistance()));
+        tv_rental_spot_id.setText(String.valueOf(rentalOffice.getOffice_id()));
+
+        ((MainActivity) getActivity()).showBottomSlide();
+        mMap.moveCamera(CameraUpdateFactory.newLatLngZoom(marker.getPosition(), DEFAULT_ZOOM));
         return true;
     }
 
+    // 대여소 정보 표시 뷰는 한번만 찾아둠
+    private void bindRentalSpotViews() {
+        if (tv_rental_spot_name != null) {
+            return;
+        }
+        MainActivity activity = (MainActivity) getActivity();
+        tv_rental_spot_name = activity.findViewById(R.id.tv_spot_name);
+        tv_rental_spot_location = activity.findViewById(R.id.tv_spot_location);
+        tv_um_count = activity.findViewById(R.id.tv_um_count);
+        tv_rental_spot_distance = activity.findViewById(R.id.tv_spot_distance);
+        tv_rental_spot_id = activity.findViewById(R.id.tv_spot_id);
+    }
+
     // 현재 위치에서 마커까지 거리 계산
     private String addDistanceSign(int result) {
 
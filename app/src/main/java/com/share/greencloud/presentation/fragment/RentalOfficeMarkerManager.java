@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.presentation.fragment;
+
+import android.graphics.Color;
+import android.util.LongSparseArray;
+
+import androidx.annotation.NonNull;
+
+import com.exlyo.gmfmt.FloatingMarkerTitlesOverlay;
+import com.exlyo.gmfmt.MarkerInfo;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
+import com.share.greencloud.domain.model.RentalOffice;
+import com.share.greencloud.utils.OfficeClusterer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.reactivex.Single;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import timber.log.Timber;
+
+/**
+ 지도 화면 영역(+여백) 안의 대여소만 마커로 표시한다.
+ 카메라가 멈출 때마다 영역 안의 대여소를 조회하여 줌 레벨에 맞게 클러스터로 묶고(백그라운드),
+ 현재 표시 중인 마커와 비교하여 차이만 추가/갱신/제거한다. 플로팅 타이틀은 한번의 applyDiff 로 반영한다.
+ */
+public class RentalOfficeMarkerManager implements GoogleMap.OnCameraIdleListener {
+
+    // 화면 크기 대비 상하좌우로 더 불러올 여백 비율
+    private static final double VIEWPORT_MARGIN_RATIO = 0.25;
+    private static final int MARKER_TITLE_COLOR = Color.GREEN;
+    private static final int CLUSTER_TITLE_COLOR = Color.rgb(0, 150, 136);
+
+    public interface OfficeLoader {
+        Single<List<RentalOffice>> load(LatLngBounds bounds);
+    }
+
+    private final GoogleMap map;
+    private final FloatingMarkerTitlesOverlay overlay;
+    private final OfficeLoader loader;
+    private final OfficeClusterer clusterer = new OfficeClusterer();
+
+    // 표시 키 -> 표시 중인 마커 / 클러스터
+    private final LongSparseArray<Marker> displayedMarkers = new LongSparseArray<>();
+    private final LongSparseArray<OfficeClusterer.Cluster> displayedClusters = new LongSparseArray<>();
+
+    private Disposable loading;
+
+    public RentalOfficeMarkerManager(@NonNull GoogleMap map, @NonNull FloatingMarkerTitlesOverlay overlay,
+                                     @NonNull OfficeLoader loader) {
+        this.map = map;
+        this.overlay = overlay;
+        this.loader = loader;
+    }
+
+    @Override
+    public void onCameraIdle() {
+        refresh();
+    }
+
+    // 현재 카메라 영역 기준으로 마커를 다시 맞춤
+    public void refresh() {
+        LatLngBounds bounds = expand(map.getProjection().getVisibleRegion().latLngBounds, VIEWPORT_MARGIN_RATIO);
+        float zoom = map.getCameraPosition().zoom;
+
+        if (loading != null) {
+            loading.dispose();
+        }
+        // dispose() 는 이미 실행 중인 map() 을 멈추지 못하므로, 그 사이에 clear() 되었으면 클러스터러가 결과를 버린다
+        long generation = clusterer.getGeneration();
+        loading = loader.load(bounds)
+                .observeOn(Schedulers.computation())
+                // 조회 결과에 없는 영역 안의 대여소는 삭제된 것이므로 클러스터에서도 뺀다
+                .map(offices -> clusterer.replaceAndClusterWithin(generation, offices,
+                        bounds.southwest.latitude, bounds.southwest.longitude,
+                        bounds.northeast.latitude, bounds.northeast.longitude, zoom))
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::applyVisibleClusters,
+                        t -> Timber.d("대여소 마커 로딩실패: %s", t.getMessage()));
+    }
+
+    public void clear() {
+        if (loading != null) {
+            loading.dispose();
+            loading = null;
+        }
+        List<Long> removedKeys = new ArrayList<>(displayedMarkers.size());
+        for (int i = 0; i < displayedMarkers.size(); i++) {
+            displayedMarkers.valueAt(i).remove();
+            removedKeys.add(displayedMarkers.keyAt(i));
+        }
+        overlay.applyDiff(null, null, removedKeys);
+        displayedMarkers.clear();
+        displayedClusters.clear();
+        clusterer.clear();
+    }
+
+    public boolean isAttachedTo(GoogleMap googleMap) {
+        return map == googleMap;
+    }
+
+    public int getDisplayedMarkerCount() {
+        return displayedMarkers.size();
+    }
+
+    private void applyVisibleClusters(List<OfficeClusterer.Cluster> visibleClusters) {
+        List<OfficeClusterer.Cluster> toAdd = new ArrayList<>();
+        List<OfficeClusterer.Cluster> toUpdate = new ArrayList<>();
+        List<Long> toRemove = new ArrayList<>();
+        diff(displayedClusters, visibleClusters, toAdd, toUpdate, toRemove);
+
+        for (Long key : toRemove) {
+            displayedMarkers.get(key).remove();
+            displayedMarkers.remove(key);
+            displayedClusters.remove(key);
+        }
+
+        Map<Long, MarkerInfo> addedTitles = new HashMap<>();
+        for (OfficeClusterer.Cluster cluster : toAdd) {
+            long key = cluster.getDisplayKey();
+            LatLng position = new LatLng(cluster.getLat(), cluster.getLon());
+            String title = String.valueOf(cluster.getUmbrellaCount());
+            MarkerOptions options = new MarkerOptions().position(position).title(title);
+            Marker marker;
+            if (cluster.isSingle()) {
+                marker = map.addMarker(options);
+                marker.setTag(cluster.getSingleOffice().getOffice_id());
+            } else {
+                marker = map.addMarker(options.icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_AZURE)));
+                marker.setTag(cluster);
+            }
+            addedTitles.put(key, makeTitle(cluster, position, title));
+            displayedMarkers.put(key, marker);
+            displayedClusters.put(key, cluster);
+        }
+
+        // 우산 수나 묶인 대여소 수만 바뀐 경우 마커를 다시 만들지 않고 제자리에서 갱신
+        Map<Long, MarkerInfo> updatedTitles = new HashMap<>();
+        for (OfficeClusterer.Cluster cluster : toUpdate) {
+            long key = cluster.getDisplayKey();
+            LatLng position = new LatLng(cluster.getLat(), cluster.getLon());
+            String title = String.valueOf(cluster.getUmbrellaCount());
+            Marker marker = displayedMarkers.get(key);
+            marker.setPosition(position);
+            marker.setTitle(title);
+            if (!cluster.isSingle()) {
+                marker.setTag(cluster);
+            }
+            updatedTitles.put(key, makeTitle(cluster, position, title));
+            displayedClusters.put(key, cluster);
+        }
+
+        overlay.applyDiff(addedTitles, updatedTitles, toRemove);
+
+        Timber.d("대여소 마커 갱신: +%s, ~%s, -%s, 표시 %s", toAdd.size(), toUpdate.size(), toRemove.size(), displayedMarkers.size());
+    }
+
+    private static MarkerInfo makeTitle(OfficeClusterer.Cluster cluster, LatLng position, String title) {
+        if (cluster.isSingle()) {
+            return new MarkerInfo(position, title, MARKER_TITLE_COLOR);
+        }
+        return new MarkerInfo(position, title, CLUSTER_TITLE_COLOR).setBoldText(true);
+    }
+
+    /**
+     표시 중인 클러스터와 새로 보여야 할 클러스터를 비교하여 추가할 클러스터, 갱신할 클러스터와 제거할 키를 채운다.
+     키가 같아도 대여소 수나 우산 수가 바뀌었으면 갱신 대상이다.
+     */
+    private static void diff(LongSparseArray<OfficeClusterer.Cluster> displayed, List<OfficeClusterer.Cluster> visibleClusters,
+                             List<OfficeClusterer.Cluster> toAdd, List<OfficeClusterer.Cluster> toUpdate, List<Long> toRemove) {
+        LongSparseArray<OfficeClusterer.Cluster> visible = new LongSparseArray<>(visibleClusters.size());
+        for (OfficeClusterer.Cluster cluster : visibleClusters) {
+            long key = cluster.getDisplayKey();
+            visible.put(key, cluster);
+            OfficeClusterer.Cluster current = displayed.get(key);
+            if (current == null) {
+                toAdd.add(cluster);
+            } else if (current.getOfficeCount() != cluster.getOfficeCount()
+                    || current.getUmbrellaCount() != cluster.getUmbrellaCount()) {
+                toUpdate.add(cluster);
+            }
+        }
+        for (int i = 0; i < displayed.size(); i++) {
+            if (visible.indexOfKey(displayed.keyAt(i)) < 0) {
+                toRemove.add(displayed.keyAt(i));
+            }
+        }
+    }
+
+    private static LatLngBounds expand(LatLngBounds bounds, double ratio) {
+        double latMargin = (bounds.northeast.latitude - bounds.southwest.latitude) * ratio;
+        double lonMargin = (bounds.northeast.longitude - bounds.southwest.longitude) * ratio;
+        if (lonMargin < 0) {
+            // 경도 180도를 가로지르는 경우 여백 없이 사용
+            return bounds;
+        }
+        return new LatLngBounds(
+                new LatLng(Math.max(-90, bounds.southwest.latitude - latMargin), bounds.southwest.longitude - lonMargin),
+                new LatLng(Math.min(90, bounds.northeast.latitude + latMargin), bounds.northeast.longitude + lonMargin));
+    }
+}
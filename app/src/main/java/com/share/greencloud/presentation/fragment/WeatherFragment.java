@@ -27,7 +27,8 @@ import com.share.greencloud.data.api.WeatherCondition;
 import com.share.greencloud.domain.interator.LocationInfoMVP;
 import com.share.greencloud.domain.interator.WeatherCallbackListener;
 import com.share.greencloud.domain.model.CurrentWeatherModel;
-import com.share.greencloud.domain.model.HourlyWeatherForecastModel;
+import com.share.greencloud.domain.model.ForecastTable;
+import com.share.greencloud.domain.model.ForecastTimeline;
 import com.share.greencloud.presentation.presenter.LocationPresenter;
 import com.share.greencloud.utils.BaseTime;
 import com.share.greencloud.utils.CustomDialog;
@@ -35,8 +36,7 @@ import com.share.greencloud.utils.Geocoding;
 import com.share.greencloud.utils.LoadingIndicator;
 import com.share.greencloud.utils.MappingCategory;
 
-import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 
 import timber.log.Timber;
@@ -71,7 +71,8 @@ public class WeatherFragment extends Fragment implements View.OnClickListener, W
     TextView tv_current_area, tv_current_degree, tv_current_sky;
 
 
-    Map<String, Integer> mHashMap;
+    // 마지막으로 화면에 표시한 예보 (값이 바뀐 뷰만 갱신하기 위해 사용)
+    ForecastTimeline shownForecast;
 
     private RxLocation rxLocation;
     private LocationPresenter presenter;
@@ -98,6 +99,7 @@ public class WeatherFragment extends Fragment implements View.OnClickListener, W
 
 
         //날씨 예보
+        shownForecast = null;
         tv_hours = new TextView[5];
         tv_chances = new TextView[5];
         tv_sky_state = new TextView[5];
@@ -201,73 +203,9 @@ public class WeatherFragment extends Fragment implements View.OnClickListener, W
 
         if (success) {
 
-            if (weatherModel instanceof HourlyWeatherForecastModel.Body) {
+            if (weatherModel instanceof ForecastTable) {
 
-                int index = 0;
-                String prevForecastTime = "9999";
-                boolean isFirstLoopDone = false;
-                boolean isRaining = false;
-                List<HourlyWeatherForecastModel.Item> weathers = ((HourlyWeatherForecastModel.Body) weatherModel).getItem().getItems();
-
-                for (HourlyWeatherForecastModel.Item item : weathers) {
-
-                    if (index == 5) {
-                        break;
-                    }
-
-                    String category = item.getCategory();
-                    String forecastTime = item.getFcstTime();
-                    String forecastValue = item.getFcstValue();
-
-
-                    if ((index == 0) && (!prevForecastTime.equals(forecastTime)) && !isFirstLoopDone) {
-                        prevForecastTime = forecastTime;
-                        isFirstLoopDone = true;
-                    } else {
-                        if (!prevForecastTime.equals(forecastTime)) {
-                            index++;
-                            isRaining = false;
-                            prevForecastTime = forecastTime;
-                        }
-                    }
-
-
-                    if ((category.equals(String.valueOf(MappingCategory.CATEGORY.PTY))) && (!forecastValue.equals("0"))) {
-
-                        isRaining = true;
-                        mHashMap = MappingCategory.mapPTY(Integer.parseInt(forecastValue));
-                        for (Map.Entry<String, Integer> entry : mHashMap.entrySet()) {
-
-                            String ampm = new BaseTime().addAMPM(forecastTime);
-                            tv_hours[index].setText(forecastTime.substring(0, 2) + ampm);
-                            iv_weathers[index].setImageResource((int) entry.getValue());
-                            tv_sky_state[index].setText(entry.getKey());
-                        }
-                    } else if (category.equals(String.valueOf(MappingCategory.CATEGORY.SKY)) && !isRaining) {
-                        mHashMap = MappingCategory.mapSKY(Integer.parseInt(forecastValue));
-                        for (Map.Entry<String, Integer> entry : mHashMap.entrySet()) {
-
-                            String ampm = new BaseTime().addAMPM(forecastTime);
-                            tv_hours[index].setText(forecastTime.substring(0, 2) + ampm);
-                            iv_weathers[index].setImageResource((int) entry.getValue());
-                            tv_sky_state[index].setText(entry.getKey());
-                        }
-                    } else if (category.equals(String.valueOf(MappingCategory.CATEGORY.POP))) {
-                        tv_chances[index].setText(forecastValue + "%");
-                    }
-
-                    if ((index == 0) && (!prevForecastTime.equals(forecastTime)) && !isFirstLoopDone) {
-                        prevForecastTime = forecastTime;
-                        isFirstLoopDone = true;
-                        index++;
-                    } else {
-                        if (!prevForecastTime.equals(forecastTime)) {
-                            index++;
-                            isRaining = false;
-                            prevForecastTime = forecastTime;
-                        }
-                    }
-                }
+                bindForecast(ForecastTimeline.of((ForecastTable) weatherModel));
 
             } else if (weatherModel instanceof CurrentWeatherModel.Weather) {
 
@@ -314,6 +252,59 @@ public class WeatherFragment extends Fragment implements View.OnClickListener, W
 
     }
 
+    // 이전에 표시한 예보와 값이 달라진 뷰만 갱신. 값이 없는 칸은 이전 값이 남지 않도록 비운다.
+    private void bindForecast(ForecastTimeline timeline) {
+        for (int slot = 0; slot < tv_hours.length; slot++) {
+            boolean shown = shownForecast != null && slot < shownForecast.size();
+
+            if (slot >= timeline.size()) {
+                if (shown || shownForecast == null) {
+                    clearForecastSlot(slot);
+                }
+                continue;
+            }
+
+            int time = timeline.getTime(slot);
+            if (!shown || shownForecast.getTime(slot) != time) {
+                tv_hours[slot].setText(String.format(Locale.US, "%02d", time / 100) + BaseTime.amPm(time));
+            }
+
+            if (!shown || conditionChanged(shownForecast, timeline, slot)) {
+                if (timeline.isPrecipitating(slot)) {
+                    iv_weathers[slot].setImageResource(MappingCategory.precipitationImage(timeline.getPrecipitation(slot)));
+                    tv_sky_state[slot].setText(MappingCategory.precipitationName(timeline.getPrecipitation(slot)));
+                } else if (timeline.getSky(slot) != ForecastTimeline.Sky.UNKNOWN) {
+                    iv_weathers[slot].setImageResource(MappingCategory.skyImage(timeline.getSky(slot)));
+                    tv_sky_state[slot].setText(MappingCategory.skyName(timeline.getSky(slot)));
+                } else {
+                    iv_weathers[slot].setImageDrawable(null);
+                    tv_sky_state[slot].setText("");
+                }
+            }
+
+            int pop = timeline.getPop(slot);
+            if (!shown || shownForecast.getPop(slot) != pop) {
+                tv_chances[slot].setText(pop != ForecastTimeline.NO_POP ? pop + "%" : "");
+            }
+        }
+        shownForecast = timeline;
+    }
+
+    private void clearForecastSlot(int slot) {
+        tv_hours[slot].setText("");
+        iv_weathers[slot].setImageDrawable(null);
+        tv_sky_state[slot].setText("");
+        tv_chances[slot].setText("");
+    }
+
+    // 비/눈이 오면 강수형태, 아니면 하늘상태를 보여주므로 보여지는 값이 바뀌었는지만 비교
+    private static boolean conditionChanged(ForecastTimeline before, ForecastTimeline after, int slot) {
+        if (before.isPrecipitating(slot) || after.isPrecipitating(slot)) {
+            return before.getPrecipitation(slot) != after.getPrecipitation(slot);
+        }
+        return before.getSky(slot) != after.getSky(slot);
+    }
+
     @Override
     public void onClick(View v) {
         switch (v.getId()) {
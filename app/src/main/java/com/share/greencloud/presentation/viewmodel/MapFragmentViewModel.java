@@ -8,30 +8,39 @@ import android.app.Application;
 import android.location.Location;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 
 import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.MarkerOptions;
 import com.google.maps.android.SphericalUtil;
 import com.share.greencloud.data.api.RentalOfficeKotlinRepositary;
 import com.share.greencloud.data.api.RentalOfficeRepository;
+import com.share.greencloud.data.api.RentalOfficeSyncEngine;
 import com.share.greencloud.domain.model.RentalOffice;
+import com.share.greencloud.utils.RentalOfficeIndex;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import io.reactivex.Single;
+
 import static com.share.greencloud.common.Constants.fixDistanceError;
 
 public class MapFragmentViewModel extends AndroidViewModel {
     private RentalOfficeRepository repository;
 
     private RentalOfficeKotlinRepositary kotlinRepositary;
-    private List<RentalOffice> allRentalOffices;
+    private LiveData<List<RentalOffice>> allRentalOffices;
 
     private List<RentalOffice> rentalOfficeList;
     private List<MarkerOptions> markerOptionsList;
 
+    // 마커 태그(office_id)로 대여소를 찾기 위한 인덱스
+    private final RentalOfficeIndex rentalOfficeIndex = new RentalOfficeIndex();
+
     public MapFragmentViewModel(@NonNull Application application) {
         super(application);
         repository = new RentalOfficeRepository(application);
@@ -44,8 +53,32 @@ public class MapFragmentViewModel extends AndroidViewModel {
         return repository.getMutableLiveData();
     }
 
+    // 서버의 변경분만 로컬 DB에 반영
+    public void syncRentalOffices() {
+        RentalOfficeSyncEngine.getInstance(getApplication()).sync();
+    }
+
     public LiveData<List<RentalOffice>> getAllRentalOfficesFromDB() {
-        return kotlinRepositary.getAllRentalOffices();
+        if (allRentalOffices == null) {
+            allRentalOffices = kotlinRepositary.getAllRentalOffices();
+        }
+        return allRentalOffices;
+    }
+
+    // 대여소 테이블이 바뀌면 값이 갱신됨 (마커 다시 그리기용)
+    public LiveData<Integer> getRentalOfficeTableChanges() {
+        return kotlinRepositary.observeChanges();
+    }
+
+    // 지도 화면 영역 안의 대여소 (백그라운드에서 조회)
+    public Single<List<RentalOffice>> getRentalOfficesWithinBounds(LatLngBounds bounds) {
+        return kotlinRepositary.withinBounds(bounds)
+                .doOnSuccess(rentalOfficeIndex::putAll);
+    }
+
+    @Nullable
+    public RentalOffice findRentalOffice(int officeId) {
+        return rentalOfficeIndex.get(officeId);
     }
 
     public List<RentalOffice> getRentalOffice() {
@@ -56,13 +89,10 @@ public class MapFragmentViewModel extends AndroidViewModel {
         return markerOptionsList;
     }
 
-    private void insert(RentalOffice rentalOffice) {
-        kotlinRepositary.insert(rentalOffice);
-    }
-
     public void makeRentalOfficeMarkers(List<RentalOffice> rentalOffices) {
         // Remote DB에서 가져온 정보를 저장
         rentalOfficeList = rentalOffices;
+        rentalOfficeIndex.putAll(rentalOffices);
 
         LatLng position;
         MarkerOptions markerUnit;
@@ -78,22 +108,22 @@ public class MapFragmentViewModel extends AndroidViewModel {
         LatLng currentLocation = new LatLng(userLocation.getLatitude(), userLocation.getLongitude());
         List<RentalOffice> newRentalOfficeData = makeRentalOfficeListwithDistanceInfo(rentalOfficeList, currentLocation);
 
-        for (RentalOffice rentalOffice : newRentalOfficeData) {
-            insert(rentalOffice);
-        }
+        kotlinRepositary.insertAll(newRentalOfficeData);
     }
 
 
+    // originalData 는 SingleFlight 로 다른 ViewModel 과 공유될 수 있으므로 거리를 넣은 사본 목록을 만든다
     public List<RentalOffice> makeRentalOfficeListwithDistanceInfo(List<RentalOffice> originalData, LatLng userLocation) {
         int distance;
+        List<RentalOffice> res = new ArrayList<>(originalData.size());
 
         // 테스트 코드 작성 커스텀 아이콘시 추가하는 케이스가 에러가 나서 임시로 빼둠
         //.icon(BitmapDescriptorFactory.fromResource(R.drawable.um_green))
         for (RentalOffice rentalOffice : originalData) {
             distance = fixDistanceError(SphericalUtil.computeDistanceBetween(userLocation,
                     new LatLng(rentalOffice.getLat(), rentalOffice.getLon())));
-            rentalOffice.setDistance(distance);
+            res.add(rentalOffice.withDistance(distance));
         }
-        return originalData;
+        return res;
     }
 }
@@ -76,8 +76,9 @@ public class BaseTime {
         return  String.valueOf(minus30s);
     }
 
-    public String addAMPM(String time) {
-        return  (Integer.parseInt(time) < 1200 ) ? "AM" : "PM";
+    // 시각(HHmm) 의 오전/오후 표시
+    public static String amPm(int time) {
+        return (time < 1200) ? "AM" : "PM";
     }
 
 }
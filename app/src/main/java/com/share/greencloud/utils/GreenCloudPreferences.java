@@ -46,6 +46,17 @@ public class GreenCloudPreferences {
     }
 
 
+    public static void setOfficeSyncCursor(Context context, long cursor) {
+        SharedPreferences pref = getPref(context);
+        SharedPreferences.Editor editor = pref.edit();
+        editor.putLong("office_sync_cursor", cursor);
+        editor.apply();
+    }
+
+    public static long getOfficeSyncCursor(Context context) {
+        return getPref(context).getLong("office_sync_cursor", 0L);
+    }
+
     public static String getToken(Context context) {
         return getPref(context).getString("token", "");
     }
@@ -5,61 +5,116 @@
 package com.share.greencloud.utils;
 
 
+/**
+ 위경도와 기상청 동네예보 격자(nx, ny) 사이의 변환 (Lambert Conformal Conic 투영).
+ 투영 상수(sn, sf, ro)는 객체를 만들 때 한번만 계산하므로 여러 좌표를 변환할 때는 KMA_GRID 를 재사용한다.
+ 격자 좌표는 x 를 상위 16비트, y 를 하위 16비트에 담은 int 하나로 반환한다 (packGrid / gridX / gridY).
+ */
+public final class GridxyConverter {
+
+    private static final double DEGRAD = Math.PI / 180.0;
+    private static final double RADDEG = 180.0 / Math.PI;
+
+    // 기상청 동네예보 5km 격자
+    public static final GridxyConverter KMA_GRID = new GridxyConverter(
+            6371.00877, // 지구 반경(km)
+            5.0,        // 격자 간격(km)
+            30.0,       // 투영 위도1(degree)
+            60.0,       // 투영 위도2(degree)
+            126.0,      // 기준점 경도(degree)
+            38.0,       // 기준점 위도(degree)
+            43,         // 기준점 X좌표(GRID)
+            136);       // 기준점 Y좌표(GRID)
+
+    private final double olon;
+    private final double xo;
+    private final double yo;
+    private final double sn;
+    private final double ro;
+    private final double reSf;
+
+    public GridxyConverter(double earthRadiusKm, double gridKm, double standardLat1, double standardLat2,
+                           double originLon, double originLat, double originX, double originY) {
+        double re = earthRadiusKm / gridKm;
+        double slat1 = standardLat1 * DEGRAD;
+        double slat2 = standardLat2 * DEGRAD;
+        olon = originLon * DEGRAD;
+        double olat = originLat * DEGRAD;
+        xo = originX;
+        yo = originY;
+
+        double tan1 = Math.tan(Math.PI * 0.25 + slat1 * 0.5);
+        sn = Math.log(Math.cos(slat1) / Math.cos(slat2)) / Math.log(Math.tan(Math.PI * 0.25 + slat2 * 0.5) / tan1);
+        double sf = Math.pow(tan1, sn) * Math.cos(slat1) / sn;
+        reSf = re * sf;
+        ro = reSf / Math.pow(Math.tan(Math.PI * 0.25 + olat * 0.5), sn);
+    }
 
-import java.util.HashMap;
-import java.util.Map;
-
-
-public class GridxyConverter {
-
-    Map map = new HashMap<String, Double>();
-
-    //public static Map<String, Object> getGridxy(double v1, double v2) {
-    public static String[] calculateGridxy(double v1, double v2) {
+    // 기존 호출부 호환용. 반환값은 {nx, ny}
+    public static String[] calculateGridxy(double lat, double lon) {
+        int grid = KMA_GRID.toGrid(lat, lon);
+        return new String[]{String.valueOf(gridX(grid)), String.valueOf(gridY(grid))};
+    }
 
-        double RE = 6371.00877; // 지구 반경(km)
-        double GRID = 5.0; // 격자 간격(km)
-        double SLAT1 = 30.0; // 투영 위도1(degree)
-        double SLAT2 = 60.0; // 투영 위도2(degree)
-        double OLON = 126.0; // 기준점 경도(degree)
-        double OLAT = 38.0; // 기준점 위도(degree)
-        double XO = 43; // 기준점 X좌표(GRID)
-        double YO = 136; // 기1준점 Y좌표(GRID)
-        double DEGRAD = Math.PI / 180.0;
+    public static int packGrid(int x, int y) {
+        return (x << 16) | (y & 0xFFFF);
+    }
 
-        double re = RE / GRID;
-        double slat1 = SLAT1 * DEGRAD;
-        double slat2 = SLAT2 * DEGRAD;
-        double olon = OLON * DEGRAD;
-        double olat = OLAT * DEGRAD;
+    public static int gridX(int grid) {
+        return grid >> 16;
+    }
 
-        double sn = Math.tan(Math.PI * 0.25 + slat2 * 0.5) / Math.tan(Math.PI * 0.25 + slat1 * 0.5);
-        sn = Math.log(Math.cos(slat1) / Math.cos(slat2)) / Math.log(sn);
-        double sf = Math.tan(Math.PI * 0.25 + slat1 * 0.5);
-        sf = Math.pow(sf, sn) * Math.cos(slat1) / sn;
-        double ro = Math.tan(Math.PI * 0.25 + olat * 0.5);
-        ro = re * sf / Math.pow(ro, sn);
-        Map<String, Object> map = new HashMap<String, Object>();
+    // 격자 범위 밖의 좌표는 음수가 될 수 있으므로 부호를 살려서 꺼낸다
+    public static int gridY(int grid) {
+        return (short) grid;
+    }
 
-        double ra = Math.tan(Math.PI * 0.25 + (v1) * DEGRAD * 0.5);
-        ra = re * sf / Math.pow(ra, sn);
-        double theta = v2 * DEGRAD - olon;
+    // 위경도 -> 격자 좌표 (packGrid 형식)
+    public int toGrid(double lat, double lon) {
+        double ra = reSf / Math.pow(Math.tan(Math.PI * 0.25 + lat * DEGRAD * 0.5), sn);
+        double theta = lon * DEGRAD - olon;
         if (theta > Math.PI)
             theta -= 2.0 * Math.PI;
         if (theta < -Math.PI)
             theta += 2.0 * Math.PI;
         theta *= sn;
 
-        map.put("lat", v1);
-        map.put("lng", v2);
-        map.put("x", (int)Math.floor(ra * Math.sin(theta) + XO + 0.5));
-        map.put("y", (int)Math.floor(ro - ra * Math.cos(theta) + YO + 0.5));
-
-        String lat = String.valueOf(map.get("x"));
-        String lng = String.valueOf(map.get("y"));
-
-        return new String[] {lat,lng};
+        int x = (int) Math.floor(ra * Math.sin(theta) + xo + 0.5);
+        int y = (int) Math.floor(ro - ra * Math.cos(theta) + yo + 0.5);
+        return packGrid(x, y);
+    }
 
+    /**
+     여러 좌표를 한번에 변환한다 (대여소별 날씨 조회 등). 객체를 만들지 않고 out 배열에 packGrid 형식으로 채운다.
+     */
+    public void toGrid(double[] lats, double[] lons, int count, int[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = toGrid(lats[i], lons[i]);
+        }
     }
 
+    /**
+     격자 좌표 -> 위경도 (격자 중심). out[0] 에 위도, out[1] 에 경도를 채운다.
+     */
+    public void toLatLon(double x, double y, double[] out) {
+        double xn = x - xo;
+        double yn = ro - y + yo;
+        double ra = Math.sqrt(xn * xn + yn * yn);
+        if (sn < 0.0)
+            ra = -ra;
+        double alat = 2.0 * Math.atan(Math.pow(reSf / ra, 1.0 / sn)) - Math.PI * 0.5;
+
+        double theta;
+        if (Math.abs(xn) <= 0.0) {
+            theta = 0.0;
+        } else if (Math.abs(yn) <= 0.0) {
+            theta = xn < 0.0 ? -Math.PI * 0.5 : Math.PI * 0.5;
+        } else {
+            theta = Math.atan2(xn, yn);
+        }
+        double alon = theta / sn + olon;
+
+        out[0] = alat * RADDEG;
+        out[1] = alon * RADDEG;
+    }
 }
@@ -6,9 +6,7 @@ package com.share.greencloud.utils;
 
 
 import com.share.greencloud.R;
-
-import java.util.HashMap;
-import java.util.Map;
+import com.share.greencloud.domain.model.ForecastTimeline;
 
 public class MappingCategory {
 
@@ -42,67 +40,58 @@ public class MappingCategory {
         }
     }
 
-    //일일 예보 하늘 상태
-    public static Map<String,Integer> mapSKY(int value) {
-
-        String skyState = null;
-        int    imgResource = 0;
-
-        Map  hm = new HashMap<String,String>();
-
-        switch(value) {
-
-            case 1:
-                skyState =  "맑음";
-                imgResource = mapImage(IMG.SUNNY);
-                break;
-            case 2:
-                skyState = "구름조금";
-                imgResource = mapImage(IMG.PCLOUDY);
-                break;
-            case 3:
-                skyState = "구름많음";
-                imgResource = mapImage(IMG.MCLOUDY);
-                break;
-            case 4:
-                skyState = "흐림";
-                imgResource = mapImage(IMG.CLOUDY);
-                break;
+    //예보 하늘 상태 (ForecastTimeline)
+    public static String skyName(ForecastTimeline.Sky sky) {
+        switch (sky) {
+            case SUNNY:
+                return "맑음";
+            case PARTLY_CLOUDY:
+                return "구름조금";
+            case MOSTLY_CLOUDY:
+                return "구름많음";
+            case CLOUDY:
+                return "흐림";
+            default:
+                return null;
         }
-        hm.put(skyState,imgResource);
-
-        return hm;
-
     }
 
-    public static Map<String,Integer> mapPTY(int value) {
-
-        String chance = null;
-        Integer imgResource = 0;
-
-        Map  hm = new HashMap<String,Integer>();
-
-        switch(value) {
+    public static int skyImage(ForecastTimeline.Sky sky) {
+        switch (sky) {
+            case PARTLY_CLOUDY:
+                return mapImage(IMG.PCLOUDY);
+            case MOSTLY_CLOUDY:
+                return mapImage(IMG.MCLOUDY);
+            case CLOUDY:
+                return mapImage(IMG.CLOUDY);
+            default:
+                return mapImage(IMG.SUNNY);
+        }
+    }
 
-            case 1:
-                chance = "비";
-                imgResource = mapImage(IMG.RAIN);
-                break;
-            case 2:
-                chance = "비/눈";
-                imgResource = mapImage(IMG.RAINSNOW);
-                break;
-            case 3:
-                chance = "눈";
-                imgResource = mapImage(IMG.SNOW);
-                break;
+    //예보 강수 형태 (ForecastTimeline)
+    public static String precipitationName(ForecastTimeline.Precipitation precipitation) {
+        switch (precipitation) {
+            case RAIN:
+                return "비";
+            case RAIN_SNOW:
+                return "비/눈";
+            case SNOW:
+                return "눈";
             default:
-                chance = "No";
-                imgResource = mapImage(IMG.RAIN);
+                return "No";
+        }
+    }
 
+    public static int precipitationImage(ForecastTimeline.Precipitation precipitation) {
+        switch (precipitation) {
+            case RAIN_SNOW:
+                return mapImage(IMG.RAINSNOW);
+            case SNOW:
+                return mapImage(IMG.SNOW);
+            default:
+                return mapImage(IMG.RAIN);
         }
-        hm.put(chance,imgResource);
-        return hm;
     }
 
     //현재 날씨 하늘상태
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.utils;
+
+import com.share.greencloud.domain.model.RentalOffice;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ 줌 레벨별 화면 격자로 대여소를 묶는다.
+ 한번 계산한 줌 레벨의 격자는 캐시해 두고, 새로 불러온 대여소만 해당 셀에 더하므로 같은 줌에서의 이동은 거의 비용이 없다.
+ 여러 스레드에서 호출될 수 있으므로 public 메소드는 동기화되어 있다.
+ */
+public class OfficeClusterer {
+
+    // 이 줌 이상에서는 묶지 않고 대여소를 하나씩 표시
+    public static final int MAX_CLUSTER_ZOOM = 16;
+    // 한 셀의 크기 (화면 픽셀)
+    public static final int DEFAULT_CELL_SIZE_PX = 100;
+
+    private static final double TILE_SIZE = 256.0;
+    private static final int CELL_BITS = 28;
+    private static final long CELL_MASK = (1L << CELL_BITS) - 1;
+
+    private final int cellSizePx;
+
+    // office_id -> 대여소
+    private final Map<Integer, RentalOffice> offices = new HashMap<>();
+    // 줌 -> (셀 -> 클러스터)
+    private final Map<Integer, Map<Long, Cluster>> clustersByZoom = new HashMap<>();
+    // clear() 할 때마다 증가. 그 전에 시작한 조회의 결과를 버리는 데 사용
+    private long generation;
+
+    public OfficeClusterer() {
+        this(DEFAULT_CELL_SIZE_PX);
+    }
+
+    public OfficeClusterer(int cellSizePx) {
+        this.cellSizePx = cellSizePx;
+    }
+
+    /**
+     대여소를 추가하거나 갱신한다. 처음 보는 대여소는 캐시된 격자에 바로 더하고,
+     이미 있던 대여소의 위치나 우산 수가 바뀐 경우에만 캐시를 비운다.
+     */
+    public synchronized void addOffices(List<RentalOffice> newOffices) {
+        for (RentalOffice office : newOffices) {
+            RentalOffice previous = offices.put(office.getOffice_id(), office);
+            if (previous == null) {
+                for (Map.Entry<Integer, Map<Long, Cluster>> entry : clustersByZoom.entrySet()) {
+                    addToCell(entry.getValue(), entry.getKey(), office);
+                }
+            } else if (previous.getLat() != office.getLat() || previous.getLon() != office.getLon()
+                    || previous.getUmbrella_count() != office.getUmbrella_count()) {
+                clustersByZoom.clear();
+            }
+        }
+    }
+
+    /**
+     대여소를 제거한다. 제거는 드물기 때문에 캐시된 격자는 모두 비운다.
+     */
+    public synchronized void removeOffices(Collection<Integer> officeIds) {
+        boolean removed = false;
+        for (Integer officeId : officeIds) {
+            removed |= offices.remove(officeId) != null;
+        }
+        if (removed) {
+            clustersByZoom.clear();
+        }
+    }
+
+    /**
+     주어진 영역을 조회한 결과로 영역 안의 대여소를 맞춘다. 결과에 없는 영역 안의 대여소(동기화로 삭제된 대여소 등)는 제거하고,
+     나머지는 addOffices() 와 같이 추가/갱신한다.
+     */
+    public synchronized void replaceOfficesWithin(List<RentalOffice> found, double south, double west, double north, double east) {
+        Set<Integer> foundIds = new HashSet<>();
+        for (RentalOffice office : found) {
+            foundIds.add(office.getOffice_id());
+        }
+        List<Integer> removedIds = new ArrayList<>();
+        for (RentalOffice office : offices.values()) {
+            if (!foundIds.contains(office.getOffice_id()) && contains(south, west, north, east, office.getLat(), office.getLon())) {
+                removedIds.add(office.getOffice_id());
+            }
+        }
+        removeOffices(removedIds);
+        addOffices(found);
+    }
+
+    public synchronized void clear() {
+        offices.clear();
+        clustersByZoom.clear();
+        generation++;
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     영역을 조회한 결과로 replaceOfficesWithin() 을 하고 같은 영역의 clustersWithin() 을 반환한다.
+     다른 스레드의 조회나 clear() 가 그 사이에 끼어들지 않도록 한번에 실행한다.
+     조회를 시작할 때 받은 generation 이 그 뒤의 clear() 로 바뀌었으면 아무것도 바꾸지 않고 빈 목록을 반환한다.
+     */
+    public synchronized List<Cluster> replaceAndClusterWithin(long expectedGeneration, List<RentalOffice> found,
+                                                              double south, double west, double north, double east, float zoom) {
+        if (generation != expectedGeneration) {
+            return new ArrayList<>();
+        }
+        replaceOfficesWithin(found, south, west, north, east);
+        return clustersWithin(south, west, north, east, zoom);
+    }
+
+    /**
+     주어진 영역 안에 중심이 있는 클러스터 목록. MAX_CLUSTER_ZOOM 이상이면 모든 클러스터는 대여소 하나씩이다.
+     캐시된 클러스터는 이후 addOffices() 로 바뀔 수 있으므로 복사본을 반환한다.
+     */
+    public synchronized List<Cluster> clustersWithin(double south, double west, double north, double east, float zoom) {
+        int zoomLevel = Math.max(0, (int) Math.floor(zoom));
+        Map<Long, Cluster> cells = clustersByZoom.get(zoomLevel);
+        if (cells == null) {
+            cells = new HashMap<>();
+            for (RentalOffice office : offices.values()) {
+                addToCell(cells, zoomLevel, office);
+            }
+            clustersByZoom.put(zoomLevel, cells);
+        }
+
+        List<Cluster> visible = new ArrayList<>();
+        for (Cluster cluster : cells.values()) {
+            if (contains(south, west, north, east, cluster.getLat(), cluster.getLon())) {
+                visible.add(cluster.copy());
+            }
+        }
+        return visible;
+    }
+
+    private static boolean contains(double south, double west, double north, double east, double lat, double lon) {
+        boolean inLon = west <= east ? (lon >= west && lon <= east) : (lon >= west || lon <= east);
+        return lat >= south && lat <= north && inLon;
+    }
+
+    private void addToCell(Map<Long, Cluster> cells, int zoomLevel, RentalOffice office) {
+        long key = zoomLevel >= MAX_CLUSTER_ZOOM ? singleKey(office) : cellKey(zoomLevel, office.getLat(), office.getLon());
+        Cluster cluster = cells.get(key);
+        if (cluster == null) {
+            cluster = new Cluster(key);
+            cells.put(key, cluster);
+        }
+        cluster.add(office);
+    }
+
+    private long cellKey(int zoomLevel, double lat, double lon) {
+        double worldSize = TILE_SIZE * Math.pow(2, zoomLevel);
+        double x = (lon + 180.0) / 360.0 * worldSize;
+        double sinLat = Math.sin(Math.toRadians(Math.max(-85.0511, Math.min(85.0511, lat))));
+        double y = (0.5 - Math.log((1 + sinLat) / (1 - sinLat)) / (4 * Math.PI)) * worldSize;
+        long cellX = (long) Math.floor(x / cellSizePx) & CELL_MASK;
+        long cellY = (long) Math.floor(y / cellSizePx) & CELL_MASK;
+        return ((long) zoomLevel << (2 * CELL_BITS)) | (cellX << CELL_BITS) | cellY;
+    }
+
+    // 묶지 않는 줌에서는 대여소마다 별도 키 (셀 키와 겹치지 않도록 음수 사용)
+    private static long singleKey(RentalOffice office) {
+        return -1L - office.getOffice_id();
+    }
+
+    /**
+     격자 한 칸에 모인 대여소. 대여소가 하나뿐이면 getSingleOffice() 로 해당 대여소를 얻을 수 있다.
+     */
+    public static class Cluster {
+        private final long key;
+        private int officeCount;
+        private int umbrellaCount;
+        private double latSum;
+        private double lonSum;
+        private RentalOffice single;
+
+        Cluster(long key) {
+            this.key = key;
+        }
+
+        Cluster copy() {
+            Cluster copy = new Cluster(key);
+            copy.officeCount = officeCount;
+            copy.umbrellaCount = umbrellaCount;
+            copy.latSum = latSum;
+            copy.lonSum = lonSum;
+            copy.single = single;
+            return copy;
+        }
+
+        void add(RentalOffice office) {
+            single = officeCount == 0 ? office : null;
+            officeCount++;
+            umbrellaCount += office.getUmbrella_count();
+            latSum += office.getLat();
+            lonSum += office.getLon();
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        // 화면 표시용 키. 대여소가 하나뿐이면 줌과 상관없이 같은 키를 사용하여 마커를 재사용할 수 있게 함
+        public long getDisplayKey() {
+            return single != null ? singleKey(single) : key;
+        }
+
+        public int getOfficeCount() {
+            return officeCount;
+        }
+
+        public int getUmbrellaCount() {
+            return umbrellaCount;
+        }
+
+        public double getLat() {
+            return latSum / officeCount;
+        }
+
+        public double getLon() {
+            return lonSum / officeCount;
+        }
+
+        public RentalOffice getSingleOffice() {
+            return single;
+        }
+
+        public boolean isSingle() {
+            return officeCount == 1;
+        }
+    }
+}
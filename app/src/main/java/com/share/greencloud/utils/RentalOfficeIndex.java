@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.utils;
+
+import com.share.greencloud.domain.model.RentalOffice;
+
+import java.util.List;
+
+/**
+ office_id -> RentalOffice 해시 인덱스.
+ int 키를 그대로 쓰는 open addressing 테이블이라 조회 시 박싱이나 객체 생성이 없다.
+ 로딩 스레드와 메인 스레드에서 함께 사용하므로 모든 메소드는 동기화되어 있다.
+ */
+public class RentalOfficeIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final float MAX_LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private RentalOffice[] values;
+    private int size;
+
+    public RentalOfficeIndex() {
+        keys = new int[INITIAL_CAPACITY];
+        values = new RentalOffice[INITIAL_CAPACITY];
+    }
+
+    public synchronized void put(RentalOffice office) {
+        if (size + 1 > keys.length * MAX_LOAD_FACTOR) {
+            resize(keys.length * 2);
+        }
+        insert(office);
+    }
+
+    public synchronized void putAll(List<RentalOffice> offices) {
+        int required = size + offices.size();
+        if (required > keys.length * MAX_LOAD_FACTOR) {
+            int capacity = keys.length;
+            while (required > capacity * MAX_LOAD_FACTOR) {
+                capacity *= 2;
+            }
+            resize(capacity);
+        }
+        for (int i = 0, count = offices.size(); i < count; i++) {
+            insert(offices.get(i));
+        }
+    }
+
+    public synchronized RentalOffice get(int officeId) {
+        int mask = keys.length - 1;
+        for (int slot = hash(officeId) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == officeId) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        keys = new int[INITIAL_CAPACITY];
+        values = new RentalOffice[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    private void insert(RentalOffice office) {
+        int officeId = office.getOffice_id();
+        int mask = keys.length - 1;
+        int slot = hash(officeId) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == officeId) {
+                values[slot] = office;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = officeId;
+        values[slot] = office;
+        size++;
+    }
+
+    private void resize(int capacity) {
+        RentalOffice[] oldValues = values;
+        keys = new int[capacity];
+        values = new RentalOffice[capacity];
+        size = 0;
+        for (RentalOffice office : oldValues) {
+            if (office != null) {
+                insert(office);
+            }
+        }
+    }
+
+    // office_id 가 연속된 값이어도 고르게 퍼지도록 섞음
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.data.api
+
+import com.google.common.truth.Truth
+import com.share.greencloud.common.Constants
+import org.junit.Test
+import retrofit2.converter.gson.GsonConverterFactory
+
+class ApiFactoryTest {
+
+    @Test
+    fun `repeated createRetrofitApi calls do not grow the interceptor chain`() {
+        ApiFactory.createRetrofitApi(ApiServices::class.java, Constants.BASE_URL, GsonConverterFactory.create())
+        val interceptors = ApiFactory.getClient(Constants.BASE_URL).interceptors().size
+        val networkInterceptors = ApiFactory.getClient(Constants.BASE_URL).networkInterceptors().size
+
+        repeat(1000) {
+            ApiFactory.createRetrofitApi(ApiServices::class.java, Constants.BASE_URL, GsonConverterFactory.create())
+            ApiFactory.createRetrofitApi(ApiServices::class.java, Constants.CURRENT_WEATHER_BASE_URL, GsonConverterFactory.create())
+        }
+
+        Truth.assertThat(ApiFactory.getClient(Constants.BASE_URL).interceptors()).hasSize(interceptors)
+        Truth.assertThat(ApiFactory.getClient(Constants.BASE_URL).networkInterceptors()).hasSize(networkInterceptors)
+    }
+
+    @Test
+    fun `one client and one service per base url`() {
+        val first = ApiFactory.createRetrofitApi(ApiServices::class.java, Constants.BASE_URL, GsonConverterFactory.create())
+        val second = ApiFactory.createRetrofitApi(ApiServices::class.java, Constants.BASE_URL, GsonConverterFactory.create())
+
+        Truth.assertThat(second).isSameInstanceAs(first)
+        Truth.assertThat(ApiFactory.getClient(Constants.BASE_URL)).isSameInstanceAs(ApiFactory.getClient(Constants.BASE_URL))
+        Truth.assertThat(ApiFactory.getClient(Constants.BASE_URL))
+                .isNotSameInstanceAs(ApiFactory.getClient(Constants.CURRENT_WEATHER_BASE_URL))
+    }
+
+    @Test
+    fun `a different converter gets its own service on the same client`() {
+        val gson = ApiFactory.createRetrofitApi(ApiServices::class.java, Constants.BASE_URL, GsonConverterFactory.create())
+        val table = ApiFactory.createRetrofitApi(ApiServices::class.java, Constants.BASE_URL,
+                ForecastTableConverterFactory.create(GsonConverterFactory.create()))
+
+        Truth.assertThat(table).isNotSameInstanceAs(gson)
+        Truth.assertThat(ApiFactory.createRetrofitApi(ApiServices::class.java, Constants.BASE_URL,
+                ForecastTableConverterFactory.create(GsonConverterFactory.create()))).isSameInstanceAs(table)
+    }
+
+    @Test
+    fun `clients share the process wide connection pool`() {
+        Truth.assertThat(ApiFactory.getClient(Constants.BASE_URL).connectionPool())
+                .isSameInstanceAs(HttpClientProvider.getSharedClient().connectionPool())
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.data.api
+
+import com.google.common.truth.Truth
+import com.google.gson.stream.JsonReader
+import com.share.greencloud.domain.model.ForecastTable
+import com.share.greencloud.domain.model.ForecastTable.Category
+import org.junit.Test
+import java.io.StringReader
+
+class ForecastSpaceDataParserTest {
+
+    private fun parse(json: String, table: ForecastTable = ForecastTable()): ForecastTable {
+        ForecastSpaceDataParser.parse(JsonReader(StringReader(json)), table)
+        return table
+    }
+
+    private fun response(items: String, totalCount: Int = 0) =
+            """{"response":{"header":{"resultCode":"0000","resultMsg":"OK"},
+               "body":{"items":$items,"numOfRows":50,"pageNo":1,"totalCount":$totalCount}}}"""
+
+    @Test
+    fun `items are grouped into time slots by category`() {
+        val table = parse(response("""{"item":[
+            {"baseDate":20191201,"baseTime":"0500","category":"POP","fcstDate":20191201,"fcstTime":"0900","fcstValue":30,"nx":61,"ny":125},
+            {"baseDate":20191201,"baseTime":"0500","category":"PTY","fcstDate":20191201,"fcstTime":"0900","fcstValue":0,"nx":61,"ny":125},
+            {"baseDate":20191201,"baseTime":"0500","category":"T3H","fcstDate":20191201,"fcstTime":"0900","fcstValue":"-1.5","nx":61,"ny":125},
+            {"baseDate":20191201,"baseTime":"0500","category":"SKY","fcstDate":"20191201","fcstTime":1200,"fcstValue":"3","nx":61,"ny":125}
+        ]}""", 4))
+
+        Truth.assertThat(table.resultCode).isEqualTo("0000")
+        Truth.assertThat(table.totalCount).isEqualTo(4)
+        Truth.assertThat(table.slotCount).isEqualTo(2)
+        Truth.assertThat(table.getDate(0)).isEqualTo(20191201)
+        Truth.assertThat(table.getTime(0)).isEqualTo(900)
+        Truth.assertThat(table.get(0, Category.POP)).isEqualTo(30f)
+        Truth.assertThat(table.get(0, Category.PTY)).isEqualTo(0f)
+        Truth.assertThat(table.get(0, Category.T3H)).isEqualTo(-1.5f)
+        Truth.assertThat(table.has(0, Category.SKY)).isFalse()
+        Truth.assertThat(table.getTime(1)).isEqualTo(1200)
+        Truth.assertThat(table.get(1, Category.SKY)).isEqualTo(3f)
+    }
+
+    @Test
+    fun `a single item object and empty items are accepted`() {
+        val single = parse(response("""{"item":{"category":"POP","fcstDate":20191201,"fcstTime":"0900","fcstValue":60}}"""))
+        Truth.assertThat(single.slotCount).isEqualTo(1)
+        Truth.assertThat(single.get(0, Category.POP)).isEqualTo(60f)
+
+        val empty = parse(response("\"\""))
+        Truth.assertThat(empty.resultCode).isEqualTo("0000")
+        Truth.assertThat(empty.slotCount).isEqualTo(0)
+    }
+
+    @Test
+    fun `unknown categories and fields are skipped`() {
+        val table = parse(response("""{"item":[
+            {"category":"XYZ","fcstDate":20191201,"fcstTime":"0900","fcstValue":1,"extra":{"a":[1,2]}},
+            {"category":"REH","fcstDate":20191201,"fcstTime":"0900","fcstValue":80,"extra":[true,null]}
+        ]}"""))
+
+        Truth.assertThat(table.slotCount).isEqualTo(1)
+        Truth.assertThat(table.get(0, Category.REH)).isEqualTo(80f)
+    }
+
+    @Test
+    fun `pages are appended to the same table and clear resets it`() {
+        val table = ForecastTable()
+        for (hour in 0 until 20) {
+            val time = "%02d00".format(hour)
+            parse(response("""{"item":[{"category":"T3H","fcstDate":20191201,"fcstTime":"$time","fcstValue":$hour}]}"""), table)
+        }
+
+        Truth.assertThat(table.slotCount).isEqualTo(20)
+        Truth.assertThat(table.slotOf(20191201, 1900)).isEqualTo(19)
+        Truth.assertThat(table.get(19, Category.T3H)).isEqualTo(19f)
+
+        table.clear()
+        parse(response("""{"item":[{"category":"POP","fcstDate":20191202,"fcstTime":"0300","fcstValue":10}]}"""), table)
+        Truth.assertThat(table.slotCount).isEqualTo(1)
+        Truth.assertThat(table.has(0, Category.T3H)).isFalse()
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.data.api
+
+import com.google.common.truth.Truth
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.argumentCaptor
+import com.nhaarman.mockitokotlin2.doReturn
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.verify
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.Request
+import okhttp3.ResponseBody.Companion.toResponseBody
+import org.junit.Test
+import retrofit2.Call
+import retrofit2.Callback
+import retrofit2.Invocation
+import retrofit2.Response
+import java.lang.reflect.Method
+
+class SingleFlightTest {
+
+    private fun call(url: String, cacheControl: String? = null, method: Method? = null): Call<String> {
+        val builder = Request.Builder().url(url)
+        if (cacheControl != null) {
+            builder.header("Cache-Control", cacheControl)
+        }
+        if (method != null) {
+            builder.tag(Invocation::class.java, Invocation.of(method, emptyList<Any>()))
+        }
+        val request = builder.build()
+        return mock { on { request() } doReturn request }
+    }
+
+    private class RecordingCallback : Callback<String> {
+        val calls = mutableListOf<Call<String>>()
+        val bodies = mutableListOf<String?>()
+        val errorBodies = mutableListOf<String?>()
+        val failures = mutableListOf<Throwable>()
+
+        override fun onResponse(call: Call<String>, response: Response<String>) {
+            calls.add(call)
+            bodies.add(response.body())
+            errorBodies.add(response.errorBody()?.string())
+        }
+
+        override fun onFailure(call: Call<String>, t: Throwable) {
+            calls.add(call)
+            failures.add(t)
+        }
+    }
+
+    @Test
+    fun `identical in-flight calls share one response`() {
+        val singleFlight = SingleFlight()
+        val first = call("https://example.com/findRentalOffice")
+        val second = call("https://example.com/findRentalOffice")
+        val firstCallback = RecordingCallback()
+        val secondCallback = RecordingCallback()
+
+        singleFlight.enqueue(first, firstCallback)
+        singleFlight.enqueue(second, secondCallback)
+
+        val captor = argumentCaptor<Callback<String>>()
+        verify(first).enqueue(captor.capture())
+        verify(second, never()).enqueue(any())
+        captor.firstValue.onResponse(first, Response.success("offices"))
+
+        Truth.assertThat(firstCallback.bodies).containsExactly("offices")
+        Truth.assertThat(secondCallback.bodies).containsExactly("offices")
+        Truth.assertThat(firstCallback.calls).containsExactly(first)
+        Truth.assertThat(secondCallback.calls).containsExactly(second)
+        Truth.assertThat(singleFlight.executedCalls).isEqualTo(1)
+        Truth.assertThat(singleFlight.coalescedCalls).isEqualTo(1)
+    }
+
+    @Test
+    fun `failures are delivered to every waiting caller`() {
+        val singleFlight = SingleFlight()
+        val first = call("https://example.com/weather?nx=61&ny=125")
+        val firstCallback = RecordingCallback()
+        val secondCallback = RecordingCallback()
+
+        val second = call("https://example.com/weather?nx=61&ny=125")
+        singleFlight.enqueue(first, firstCallback)
+        singleFlight.enqueue(second, secondCallback)
+
+        val captor = argumentCaptor<Callback<String>>()
+        verify(first).enqueue(captor.capture())
+        val error = RuntimeException("timeout")
+        captor.firstValue.onFailure(first, error)
+
+        Truth.assertThat(firstCallback.failures).containsExactly(error)
+        Truth.assertThat(secondCallback.failures).containsExactly(error)
+        Truth.assertThat(secondCallback.calls).containsExactly(second)
+    }
+
+    @Test
+    fun `every waiting caller can read the error body`() {
+        val singleFlight = SingleFlight()
+        val first = call("https://example.com/findRentalOffice")
+        val firstCallback = RecordingCallback()
+        val secondCallback = RecordingCallback()
+
+        singleFlight.enqueue(first, firstCallback)
+        singleFlight.enqueue(call("https://example.com/findRentalOffice"), secondCallback)
+
+        val captor = argumentCaptor<Callback<String>>()
+        verify(first).enqueue(captor.capture())
+        val errorBody = "{\"message\":\"busy\"}".toResponseBody("application/json".toMediaType())
+        captor.firstValue.onResponse(first, Response.error(503, errorBody))
+
+        Truth.assertThat(firstCallback.errorBodies).containsExactly("{\"message\":\"busy\"}")
+        Truth.assertThat(secondCallback.errorBodies).containsExactly("{\"message\":\"busy\"}")
+    }
+
+    @Test
+    fun `different parameters, cache policies and completed calls are not coalesced`() {
+        val singleFlight = SingleFlight()
+        val first = call("https://example.com/weather?nx=61&ny=125")
+        val otherCell = call("https://example.com/weather?nx=60&ny=127")
+        val cacheOnly = call("https://example.com/weather?nx=61&ny=125", "only-if-cached")
+
+        singleFlight.enqueue(first, RecordingCallback())
+        singleFlight.enqueue(otherCell, RecordingCallback())
+        singleFlight.enqueue(cacheOnly, RecordingCallback())
+
+        val captor = argumentCaptor<Callback<String>>()
+        verify(first).enqueue(captor.capture())
+        verify(otherCell).enqueue(any())
+        verify(cacheOnly).enqueue(any())
+
+        captor.firstValue.onResponse(first, Response.success("done"))
+        val again = call("https://example.com/weather?nx=61&ny=125")
+        singleFlight.enqueue(again, RecordingCallback())
+
+        verify(again).enqueue(any())
+        Truth.assertThat(singleFlight.executedCalls).isEqualTo(4)
+        Truth.assertThat(singleFlight.coalescedCalls).isEqualTo(0)
+    }
+
+    @Test
+    fun `calls of different service methods on the same URL are not coalesced`() {
+        val singleFlight = SingleFlight()
+        val url = "https://example.com/ForecastSpaceData?nx=61&ny=125"
+        val data = call(url, method = Any::class.java.getMethod("toString"))
+        val table = call(url, method = Any::class.java.getMethod("hashCode"))
+        val sameTable = call(url, method = Any::class.java.getMethod("hashCode"))
+
+        singleFlight.enqueue(data, RecordingCallback())
+        singleFlight.enqueue(table, RecordingCallback())
+        singleFlight.enqueue(sameTable, RecordingCallback())
+
+        verify(data).enqueue(any())
+        verify(table).enqueue(any())
+        verify(sameTable, never()).enqueue(any())
+        Truth.assertThat(singleFlight.executedCalls).isEqualTo(2)
+        Truth.assertThat(singleFlight.coalescedCalls).isEqualTo(1)
+    }
+}
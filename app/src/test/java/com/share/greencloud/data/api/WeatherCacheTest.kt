@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.data.api
+
+import com.google.common.truth.Truth
+import com.google.gson.Gson
+import com.share.greencloud.domain.model.HourlyWeatherForecastModel
+import io.reactivex.schedulers.Schedulers
+import io.reactivex.schedulers.TestScheduler
+import org.junit.Test
+import java.io.File
+import java.text.SimpleDateFormat
+import java.util.Locale
+
+class WeatherCacheTest {
+
+    private val forecastJson = """{"response":{"header":{"resultCode":"0000"},"body":{"items":{"item":[
+        {"baseDate":"20191201","baseTime":"0500","category":"POP","fcstDate":"20191201","fcstTime":"0900","fcstValue":"30"}]}}}}"""
+
+    private fun millis(dateTime: String) = SimpleDateFormat("yyyyMMddHHmm", Locale.US).parse(dateTime)!!.time
+
+    private fun forecast() = Gson().fromJson(forecastJson, HourlyWeatherForecastModel::class.java)
+
+    private fun cache(directory: File?) = WeatherCache(directory, Schedulers.trampoline(), Schedulers.trampoline())
+
+    private fun WeatherCache.load(key: String, now: Long): HourlyWeatherForecastModel? {
+        var result: HourlyWeatherForecastModel? = null
+        get(key, HourlyWeatherForecastModel::class.java, now) { result = it }
+        return result
+    }
+
+    @Test
+    fun `forecast entries expire at the next base time`() {
+        Truth.assertThat(WeatherCache.forecastExpiresAt("20191201", "0500")).isEqualTo(millis("201912010800"))
+        Truth.assertThat(WeatherCache.forecastExpiresAt("20191130", "2300")).isEqualTo(millis("201912010200"))
+    }
+
+    @Test
+    fun `current entries are shared within a cell and an hour`() {
+        val now = millis("201912011015")
+
+        Truth.assertThat(WeatherCache.currentKey(37.49871, 127.02771, now))
+                .isEqualTo(WeatherCache.currentKey(37.49879, 127.02779, millis("201912011059")))
+        Truth.assertThat(WeatherCache.currentKey(37.49871, 127.02771, now))
+                .isNotEqualTo(WeatherCache.currentKey(37.49871, 127.02771, millis("201912011100")))
+        Truth.assertThat(WeatherCache.currentKey(37.49871, 127.02771, now))
+                .isNotEqualTo(WeatherCache.currentKey(37.5100758, 127.063861, now))
+        Truth.assertThat(WeatherCache.currentExpiresAt(now)).isEqualTo(millis("201912011100"))
+    }
+
+    @Test
+    fun `entries survive in the disk cache until they expire`() {
+        val directory = createTempDir()
+        try {
+            val key = WeatherCache.forecastKey("61", "125", "20191201", "0500")
+            val expiresAt = WeatherCache.forecastExpiresAt("20191201", "0500")
+            cache(directory).put(key, forecast(), expiresAt)
+
+            val cache = cache(directory)
+            Truth.assertThat(cache.getFromMemory(key, HourlyWeatherForecastModel::class.java, expiresAt - 1)).isNull()
+            val cached = cache.load(key, expiresAt - 1)
+            Truth.assertThat(cached!!.getResonse().body.item.items[0].fcstValue).isEqualTo("30")
+            Truth.assertThat(cache.diskHits).isEqualTo(1)
+
+            Truth.assertThat(cache.getFromMemory(key, HourlyWeatherForecastModel::class.java, expiresAt - 1)).isSameInstanceAs(cached)
+            Truth.assertThat(cache.load(key, expiresAt - 1)).isSameInstanceAs(cached)
+            Truth.assertThat(cache.memoryHits).isEqualTo(2)
+
+            Truth.assertThat(cache(directory).load(key, expiresAt)).isNull()
+            Truth.assertThat(directory.listFiles()).isEmpty()
+        } finally {
+            directory.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun `memory only cache misses after expiry`() {
+        val cache = cache(null)
+        cache.put("key", forecast(), 1000)
+
+        Truth.assertThat(cache.load("key", 999)).isNotNull()
+        Truth.assertThat(cache.load("key", 1000)).isNull()
+        Truth.assertThat(cache.misses).isEqualTo(1)
+    }
+
+    @Test
+    fun `disk reads and writes run on the io scheduler`() {
+        val directory = createTempDir()
+        try {
+            val io = TestScheduler()
+            val cache = WeatherCache(directory, io, Schedulers.trampoline())
+            cache.put("key", forecast(), 1000)
+            Truth.assertThat(directory.listFiles()).isEmpty()
+            io.triggerActions()
+            Truth.assertThat(directory.listFiles()).hasLength(1)
+
+            val otherCache = WeatherCache(directory, io, Schedulers.trampoline())
+            var loaded = false
+            var result: HourlyWeatherForecastModel? = null
+            otherCache.get("key", HourlyWeatherForecastModel::class.java, 999) {
+                loaded = true
+                result = it
+            }
+            Truth.assertThat(loaded).isFalse()
+            io.triggerActions()
+            Truth.assertThat(loaded).isTrue()
+            Truth.assertThat(result).isNotNull()
+        } finally {
+            directory.deleteRecursively()
+        }
+    }
+}
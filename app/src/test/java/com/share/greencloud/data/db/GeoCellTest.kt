@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.data.db
+
+import com.google.common.truth.Truth
+import org.junit.Test
+
+class GeoCellTest {
+
+    @Test
+    fun `nearby points share a cell and distant points do not`() {
+        Truth.assertThat(GeoCell.of(37.49871, 127.02771)).isEqualTo(GeoCell.of(37.49879, 127.02779))
+        Truth.assertThat(GeoCell.of(37.4987548, 127.027777)).isNotEqualTo(GeoCell.of(37.5100758, 127.063861))
+    }
+
+    @Test
+    fun `cells covering bounds contain the cell of every point inside`() {
+        val cells = GeoCell.cellsCovering(37.49, 127.00, 37.52, 127.07, 225)!!.toList()
+
+        Truth.assertThat(cells).contains(GeoCell.of(37.4987548, 127.027777))
+        Truth.assertThat(cells).contains(GeoCell.of(37.4910180, 127.006799))
+        Truth.assertThat(cells).contains(GeoCell.of(37.5100758, 127.063861))
+        Truth.assertThat(cells).doesNotContain(GeoCell.of(37.5697375, 126.988660))
+    }
+
+    @Test
+    fun `too large or antimeridian bounds fall back`() {
+        Truth.assertThat(GeoCell.cellsCovering(33.0, 124.0, 39.0, 132.0, 225)).isNull()
+        Truth.assertThat(GeoCell.cellsCovering(-10.0, 179.9, 10.0, -179.9, 225)).isNull()
+    }
+
+    @Test
+    fun `longitude is normalized`() {
+        Truth.assertThat(GeoCell.of(37.5, 127.0 + 360.0)).isEqualTo(GeoCell.of(37.5, 127.0))
+        Truth.assertThat(GeoCell.of(37.5, 127.0 - 360.0)).isEqualTo(GeoCell.of(37.5, 127.0))
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.domain.model
+
+import com.google.common.truth.Truth
+import com.share.greencloud.domain.model.ForecastTable.Category
+import com.share.greencloud.domain.model.ForecastTimeline.Precipitation
+import com.share.greencloud.domain.model.ForecastTimeline.Sky
+import org.junit.Test
+
+class ForecastTimelineTest {
+
+    @Test
+    fun `items are grouped by forecast time in order`() {
+        val timeline = ForecastTimeline.Builder()
+                .add(20191201, 900, Category.POP, 30f)
+                .add(20191201, 900, Category.PTY, 0f)
+                .add(20191201, 900, Category.SKY, 3f)
+                .add(20191201, 900, Category.T3H, 5f)
+                .add(20191201, 1200, Category.POP, 70f)
+                .add(20191201, 1200, Category.PTY, 1f)
+                .add(20191201, 1200, Category.SKY, 4f)
+                .build()
+
+        Truth.assertThat(timeline.size()).isEqualTo(2)
+        Truth.assertThat(timeline.getTime(0)).isEqualTo(900)
+        Truth.assertThat(timeline.getSky(0)).isEqualTo(Sky.MOSTLY_CLOUDY)
+        Truth.assertThat(timeline.getPrecipitation(0)).isEqualTo(Precipitation.NONE)
+        Truth.assertThat(timeline.isPrecipitating(0)).isFalse()
+        Truth.assertThat(timeline.getPop(0)).isEqualTo(30)
+        Truth.assertThat(timeline.getTime(1)).isEqualTo(1200)
+        Truth.assertThat(timeline.getPrecipitation(1)).isEqualTo(Precipitation.RAIN)
+        Truth.assertThat(timeline.isPrecipitating(1)).isTrue()
+        Truth.assertThat(timeline.getPop(1)).isEqualTo(70)
+    }
+
+    @Test
+    fun `the same time on the next day is a new slot and extra slots are dropped`() {
+        val builder = ForecastTimeline.Builder()
+        for (day in 0 until 4) {
+            builder.add(20191201 + day, 0, Category.SKY, 1f)
+            builder.add(20191201 + day, 300, Category.SKY, 2f)
+        }
+        val timeline = builder.build()
+
+        Truth.assertThat(timeline.size()).isEqualTo(ForecastTimeline.SLOT_COUNT)
+        Truth.assertThat(timeline.getTime(4)).isEqualTo(0)
+        Truth.assertThat(timeline.getSky(3)).isEqualTo(Sky.PARTLY_CLOUDY)
+    }
+
+    @Test
+    fun `missing values and unknown codes have defaults`() {
+        val timeline = ForecastTimeline.Builder()
+                .add(20191201, 1500, Category.T3H, 12f)
+                .add(20191201, 1800, Category.SKY, 9f)
+                .add(20191201, 1800, Category.PTY, 4f)
+                .build()
+
+        Truth.assertThat(timeline.getSky(0)).isEqualTo(Sky.UNKNOWN)
+        Truth.assertThat(timeline.getPop(0)).isEqualTo(ForecastTimeline.NO_POP)
+        Truth.assertThat(timeline.getSky(1)).isEqualTo(Sky.UNKNOWN)
+        Truth.assertThat(timeline.getPrecipitation(1)).isEqualTo(Precipitation.NONE)
+    }
+
+    @Test
+    fun `timeline is built from the first slots of a forecast table`() {
+        val table = ForecastTable()
+        for (slot in 0 until 7) {
+            table.put(20191201, slot * 300, Category.SKY, 1f + slot % 4)
+            table.put(20191201, slot * 300, Category.POP, slot * 10f)
+        }
+        table.put(20191201, 600, Category.PTY, 3f)
+
+        val timeline = ForecastTimeline.of(table)
+
+        Truth.assertThat(timeline.size()).isEqualTo(ForecastTimeline.SLOT_COUNT)
+        Truth.assertThat(timeline.getTime(2)).isEqualTo(600)
+        Truth.assertThat(timeline.getPrecipitation(2)).isEqualTo(Precipitation.SNOW)
+        Truth.assertThat(timeline.getSky(3)).isEqualTo(Sky.CLOUDY)
+        Truth.assertThat(timeline.getPop(4)).isEqualTo(40)
+    }
+
+    @Test
+    fun `slots with only temperatures are skipped without shortening the timeline`() {
+        val table = ForecastTable()
+        table.put(20191201, 0, Category.T3H, 3f)
+        table.put(20191201, 0, Category.TMN, -2f)
+        for (slot in 1 until 7) {
+            table.put(20191201, slot * 300, Category.SKY, 1f)
+            table.put(20191201, slot * 300, Category.POP, slot * 10f)
+        }
+
+        val timeline = ForecastTimeline.of(table)
+
+        Truth.assertThat(timeline.size()).isEqualTo(ForecastTimeline.SLOT_COUNT)
+        Truth.assertThat(timeline.getTime(0)).isEqualTo(300)
+        Truth.assertThat(timeline.getTime(4)).isEqualTo(1500)
+        Truth.assertThat(timeline.getPop(4)).isEqualTo(50)
+    }
+}
@@ -62,5 +62,7 @@ class MapFragmentViewModelTest {
         val rentalOfficeData = viewmodel.makeRentalOfficeListwithDistanceInfo(list, currentLocation)
 
         Truth.assertThat(rentalOfficeData[0].distance).isEqualTo(distance)
+        // 공유된 원본 목록은 그대로
+        Truth.assertThat(list[0].distance).isEqualTo(0)
     }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.utils
+
+import com.google.common.truth.Truth
+import org.junit.Test
+
+class GridxyConverterTest {
+
+    // 기상청 동네예보 격자 위경도 자료 기준
+    private val referencePoints = listOf(
+            Triple(37.5665, 126.9780, 60 to 127),  // 서울
+            Triple(37.5172, 127.0473, 61 to 126),  // 서울 강남구
+            Triple(35.1796, 129.0756, 98 to 76),   // 부산
+            Triple(36.3504, 127.3845, 67 to 100),  // 대전
+            Triple(33.4996, 126.5312, 53 to 38),   // 제주
+            Triple(38.0, 126.0, 43 to 136)         // 기준점
+    )
+
+    @Test
+    fun `reference points map to their KMA grid cells`() {
+        for ((lat, lon, grid) in referencePoints) {
+            val packed = GridxyConverter.KMA_GRID.toGrid(lat, lon)
+            Truth.assertThat(GridxyConverter.gridX(packed) to GridxyConverter.gridY(packed)).isEqualTo(grid)
+            Truth.assertThat(GridxyConverter.calculateGridxy(lat, lon))
+                    .asList().containsExactly(grid.first.toString(), grid.second.toString()).inOrder()
+        }
+    }
+
+    @Test
+    fun `bulk conversion matches single conversion`() {
+        val lats = referencePoints.map { it.first }.toDoubleArray()
+        val lons = referencePoints.map { it.second }.toDoubleArray()
+        val out = IntArray(lats.size)
+
+        GridxyConverter.KMA_GRID.toGrid(lats, lons, lats.size, out)
+
+        for (i in lats.indices) {
+            Truth.assertThat(out[i]).isEqualTo(GridxyConverter.KMA_GRID.toGrid(lats[i], lons[i]))
+        }
+    }
+
+    @Test
+    fun `inverse transform returns a point inside the same cell`() {
+        val latLon = DoubleArray(2)
+        GridxyConverter.KMA_GRID.toLatLon(43.0, 136.0, latLon)
+        Truth.assertThat(latLon[0]).isWithin(1e-9).of(38.0)
+        Truth.assertThat(latLon[1]).isWithin(1e-9).of(126.0)
+
+        for ((_, _, grid) in referencePoints) {
+            GridxyConverter.KMA_GRID.toLatLon(grid.first.toDouble(), grid.second.toDouble(), latLon)
+            Truth.assertThat(GridxyConverter.KMA_GRID.toGrid(latLon[0], latLon[1]))
+                    .isEqualTo(GridxyConverter.packGrid(grid.first, grid.second))
+        }
+    }
+
+    @Test
+    fun `packed grid keeps negative coordinates`() {
+        val packed = GridxyConverter.packGrid(-3, -7)
+        Truth.assertThat(GridxyConverter.gridX(packed)).isEqualTo(-3)
+        Truth.assertThat(GridxyConverter.gridY(packed)).isEqualTo(-7)
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.utils
+
+import com.google.common.truth.Truth
+import com.share.greencloud.domain.model.RentalOffice
+import org.junit.Test
+
+class OfficeClustererTest {
+
+    private val offices = listOf(
+            RentalOffice(0, "강남 대여소", "", 37.4987548, 127.027777, 10),
+            RentalOffice(1, "서초 대여소", "", 37.4910180, 127.006799, 15),
+            RentalOffice(2, "선릉 대여소", "", 37.5052801, 127.049777, 13),
+            RentalOffice(3, "삼성 대여소", "", 37.5100758, 127.063861, 20)
+    )
+
+    @Test
+    fun `low zoom groups nearby offices and sums umbrella count`() {
+        val clusterer = OfficeClusterer()
+        clusterer.addOffices(offices)
+
+        val clusters = clusterer.clustersWithin(37.0, 126.5, 38.0, 127.5, 10f)
+
+        Truth.assertThat(clusters).hasSize(1)
+        Truth.assertThat(clusters[0].officeCount).isEqualTo(4)
+        Truth.assertThat(clusters[0].umbrellaCount).isEqualTo(58)
+        Truth.assertThat(clusters[0].isSingle).isFalse()
+    }
+
+    @Test
+    fun `high zoom shows every office on its own`() {
+        val clusterer = OfficeClusterer()
+        clusterer.addOffices(offices)
+
+        val clusters = clusterer.clustersWithin(37.0, 126.5, 38.0, 127.5, OfficeClusterer.MAX_CLUSTER_ZOOM.toFloat())
+
+        Truth.assertThat(clusters).hasSize(4)
+        Truth.assertThat(clusters.map { it.singleOffice.office_id }).containsExactly(0, 1, 2, 3)
+    }
+
+    @Test
+    fun `offices added later join cached clusters`() {
+        val clusterer = OfficeClusterer()
+        clusterer.addOffices(offices.subList(0, 2))
+        val before = clusterer.clustersWithin(37.0, 126.5, 38.0, 127.5, 10f)
+
+        clusterer.addOffices(offices.subList(2, 4))
+        val after = clusterer.clustersWithin(37.0, 126.5, 38.0, 127.5, 10f)
+
+        Truth.assertThat(before[0].officeCount).isEqualTo(2)
+        Truth.assertThat(after[0].officeCount).isEqualTo(4)
+    }
+
+    @Test
+    fun `single office keeps its display key across zoom levels`() {
+        val clusterer = OfficeClusterer()
+        clusterer.addOffices(offices.subList(0, 1))
+
+        val low = clusterer.clustersWithin(37.0, 126.5, 38.0, 127.5, 10f)
+        val high = clusterer.clustersWithin(37.0, 126.5, 38.0, 127.5, 18f)
+
+        Truth.assertThat(low[0].displayKey).isEqualTo(high[0].displayKey)
+    }
+
+    @Test
+    fun `clusters outside bounds are skipped`() {
+        val clusterer = OfficeClusterer()
+        clusterer.addOffices(offices)
+
+        Truth.assertThat(clusterer.clustersWithin(35.0, 128.0, 36.0, 129.0, 10f)).isEmpty()
+    }
+
+    @Test
+    fun `offices missing from a viewport query are removed`() {
+        val clusterer = OfficeClusterer()
+        clusterer.addOffices(offices)
+
+        // 삼성 대여소가 삭제된 뒤 강남 주변을 다시 조회
+        clusterer.replaceOfficesWithin(offices.subList(0, 3), 37.48, 127.0, 37.52, 127.07)
+
+        val clusters = clusterer.clustersWithin(37.0, 126.5, 38.0, 127.5, OfficeClusterer.MAX_CLUSTER_ZOOM.toFloat())
+        Truth.assertThat(clusters.map { it.singleOffice.office_id }).containsExactly(0, 1, 2)
+    }
+
+    @Test
+    fun `offices outside the queried viewport are kept`() {
+        val clusterer = OfficeClusterer()
+        clusterer.addOffices(offices)
+
+        clusterer.replaceOfficesWithin(emptyList(), 37.49, 127.0, 37.495, 127.01)
+
+        val clusters = clusterer.clustersWithin(37.0, 126.5, 38.0, 127.5, 10f)
+        Truth.assertThat(clusters[0].officeCount).isEqualTo(3)
+
+        clusterer.removeOffices(listOf(0, 2))
+        Truth.assertThat(clusterer.clustersWithin(37.0, 126.5, 38.0, 127.5, 10f)[0].officeCount).isEqualTo(1)
+    }
+
+    @Test
+    fun `a query started before clear does not refill the clusterer`() {
+        val clusterer = OfficeClusterer()
+        val generation = clusterer.generation
+        clusterer.clear()
+
+        val clusters = clusterer.replaceAndClusterWithin(generation, offices, 37.0, 126.5, 38.0, 127.5, 10f)
+
+        Truth.assertThat(clusters).isEmpty()
+        Truth.assertThat(clusterer.clustersWithin(37.0, 126.5, 38.0, 127.5, 10f)).isEmpty()
+        Truth.assertThat(clusterer.replaceAndClusterWithin(clusterer.generation, offices, 37.0, 126.5, 38.0, 127.5, 10f)).hasSize(1)
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2019. GreenCloud All rights reserved.
+ */
+
+package com.share.greencloud.utils
+
+import com.google.common.truth.Truth
+import com.share.greencloud.domain.model.RentalOffice
+import org.junit.Test
+
+class RentalOfficeIndexTest {
+
+    @Test
+    fun `finds offices by id and misses unknown ids`() {
+        val index = RentalOfficeIndex()
+        val gangnam = RentalOffice(0, "강남 대여소", "", 37.4987548, 127.027777, 10)
+        val seocho = RentalOffice(1, "서초 대여소", "", 37.4910180, 127.006799, 15)
+        index.putAll(listOf(gangnam, seocho))
+
+        Truth.assertThat(index.get(0)).isSameInstanceAs(gangnam)
+        Truth.assertThat(index.get(1)).isSameInstanceAs(seocho)
+        Truth.assertThat(index.get(2)).isNull()
+        Truth.assertThat(index.get(-1)).isNull()
+    }
+
+    @Test
+    fun `putting the same id replaces the office`() {
+        val index = RentalOfficeIndex()
+        index.put(RentalOffice(7, "old", "", 37.0, 127.0, 1))
+        val updated = RentalOffice(7, "new", "", 37.0, 127.0, 2)
+        index.put(updated)
+
+        Truth.assertThat(index.size()).isEqualTo(1)
+        Truth.assertThat(index.get(7)).isSameInstanceAs(updated)
+    }
+
+    @Test
+    fun `ten thousand offices are all reachable after growing`() {
+        val index = RentalOfficeIndex()
+        val offices = (0 until 10_000).map { RentalOffice(it * 3, "대여소 $it", "", 37.0, 127.0, it % 30) }
+        index.putAll(offices.subList(0, 5_000))
+        offices.subList(5_000, 10_000).forEach { index.put(it) }
+
+        Truth.assertThat(index.size()).isEqualTo(10_000)
+        offices.forEach { Truth.assertThat(index.get(it.office_id)).isSameInstanceAs(it) }
+        Truth.assertThat(index.get(1)).isNull()
+    }
+
+    @Test
+    fun `clear empties the index`() {
+        val index = RentalOfficeIndex()
+        index.put(RentalOffice(1, "", "", 37.0, 127.0, 1))
+        index.clear()
+
+        Truth.assertThat(index.size()).isEqualTo(0)
+        Truth.assertThat(index.get(1)).isNull()
+    }
+}
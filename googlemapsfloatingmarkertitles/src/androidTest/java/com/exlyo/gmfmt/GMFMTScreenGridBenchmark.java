@@ -0,0 +1,172 @@
+package com.exlyo.gmfmt;
+
+import android.graphics.Color;
+import android.graphics.RectF;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import com.google.android.gms.maps.model.LatLng;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the conflict detection of the displayed floating titles through GMFMTScreenGrid with the former pairwise comparison, for 100,
+ * 500 and 2000 displayed titles spread over a phone sized view. Both must find the same conflicted titles.
+ * <p>
+ * The results are printed in logcat with the GMFMTScreenGridBench tag.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class GMFMTScreenGridBenchmark {
+	private static final String TAG = "GMFMTScreenGridBench";
+	private static final int VIEW_WIDTH = 1080;
+	private static final int VIEW_HEIGHT = 1920;
+	private static final float MAX_TITLE_WIDTH = 350;
+	private static final float TITLE_HEIGHT = 48;
+	private static final int WARMUP_ITERATIONS = 5;
+	private static final int ITERATIONS = 20;
+
+	@Test
+	public void conflictDetection100Titles() {
+		run(100);
+	}
+
+	@Test
+	public void conflictDetection500Titles() {
+		run(500);
+	}
+
+	@Test
+	public void conflictDetection2000Titles() {
+		run(2000);
+	}
+
+	private void run(final int _titleCount) {
+		final List<MarkerInfo> titles = createDisplayedTitles(_titleCount);
+		final GMFMTScreenGrid grid = new GMFMTScreenGrid();
+		final boolean[] pairwiseConflicts = new boolean[_titleCount];
+		final boolean[] gridConflicts = new boolean[_titleCount];
+
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			detectPairwise(titles, pairwiseConflicts);
+			detectWithGrid(grid, titles, gridConflicts);
+		}
+
+		long pairwiseChecks = 0;
+		long start = SystemClock.elapsedRealtimeNanos();
+		for (int i = 0; i < ITERATIONS; i++) {
+			pairwiseChecks = detectPairwise(titles, pairwiseConflicts);
+		}
+		final long pairwiseNanos = (SystemClock.elapsedRealtimeNanos() - start) / ITERATIONS;
+
+		long gridChecks = 0;
+		start = SystemClock.elapsedRealtimeNanos();
+		for (int i = 0; i < ITERATIONS; i++) {
+			gridChecks = detectWithGrid(grid, titles, gridConflicts);
+		}
+		final long gridNanos = (SystemClock.elapsedRealtimeNanos() - start) / ITERATIONS;
+
+		for (int i = 0; i < _titleCount; i++) {
+			assertEquals("title " + i, pairwiseConflicts[i], gridConflicts[i]);
+		}
+		assertTrue(gridChecks <= pairwiseChecks);
+
+		Log.i(TAG, String.format(Locale.US, "%d titles: pairwise %.3fms (%d checks), grid %.3fms (%d checks)",//
+			_titleCount, pairwiseNanos / 1e6, pairwiseChecks, gridNanos / 1e6, gridChecks));
+	}
+
+	/**
+	 * Former algorithm: every displayed title is compared with all the other displayed titles.
+	 *
+	 * @return the number of intersection tests
+	 */
+	private static long detectPairwise(@NonNull final List<MarkerInfo> _titles, @NonNull final boolean[] _res) {
+		long checks = 0;
+		for (int i = 0; i < _titles.size(); i++) {
+			final RectF area = _titles.get(i).displayArea;
+			_res[i] = false;
+			for (int j = 0; j < _titles.size(); j++) {
+				if (i == j) {
+					continue;
+				}
+				checks++;
+				if (RectF.intersects(area, _titles.get(j).displayArea)) {
+					_res[i] = true;
+					break;
+				}
+			}
+		}
+		return checks;
+	}
+
+	/**
+	 * Same lookup as FloatingMarkerTitlesOverlay.findConflictedDisplayedMarker(): only the titles sharing a grid cell are compared.
+	 *
+	 * @return the number of intersection tests
+	 */
+	private static long detectWithGrid(@NonNull final GMFMTScreenGrid _grid, @NonNull final List<MarkerInfo> _titles,
+		@NonNull final boolean[] _res) {
+		_grid.rebuild(_titles, VIEW_WIDTH, VIEW_HEIGHT, MAX_TITLE_WIDTH);
+		final long[] checks = new long[1];
+		for (int i = 0; i < _titles.size(); i++) {
+			_res[i] = findConflict(_grid, _titles.get(i), checks) != null;
+		}
+		return checks[0];
+	}
+
+	@Nullable
+	private static MarkerInfo findConflict(@NonNull final GMFMTScreenGrid _grid, @NonNull final MarkerInfo _markerInfo,
+		@NonNull final long[] _checks) {
+		final RectF area = _markerInfo.displayArea;
+		final int maxColumn = _grid.getMaxColumn(area);
+		final int maxRow = _grid.getMaxRow(area);
+		for (int row = _grid.getMinRow(area); row <= maxRow; row++) {
+			for (int column = _grid.getMinColumn(area); column <= maxColumn; column++) {
+				final List<MarkerInfo> cell = _grid.getCell(column, row);
+				for (int i = 0; i < cell.size(); i++) {
+					final MarkerInfo mi = cell.get(i);
+					if (mi == _markerInfo) {
+						continue;
+					}
+					_checks[0]++;
+					if (RectF.intersects(area, mi.displayArea)) {
+						return mi;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Titles of random widths, spread over the view and slightly beyond its bounds like titles of markers near the edges.
+	 */
+	@NonNull
+	private static List<MarkerInfo> createDisplayedTitles(final int _count) {
+		final Random random = new Random(42);
+		final List<MarkerInfo> res = new ArrayList<>(_count);
+		for (int i = 0; i < _count; i++) {
+			final MarkerInfo mi = new MarkerInfo(new LatLng(0, 0), "Title " + i, Color.BLACK);
+			final float left = random.nextFloat() * (VIEW_WIDTH + MAX_TITLE_WIDTH) - MAX_TITLE_WIDTH;
+			final float top = random.nextFloat() * (VIEW_HEIGHT + TITLE_HEIGHT) - TITLE_HEIGHT;
+			final float width = 60 + random.nextFloat() * (MAX_TITLE_WIDTH - 60);
+			mi.displayArea.set(left, top, left + width, top + TITLE_HEIGHT);
+			res.add(mi);
+		}
+		return res;
+	}
+}
@@ -0,0 +1,256 @@
+package com.exlyo.gmfmt;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Point;
+import android.graphics.RectF;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.text.TextPaint;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.maps.model.CameraPosition;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Counts the objects allocated by the per-frame geometry work of 500 floating titles while the camera pans, zooms and rotates:
+ * GMFMTGeometryCache.prepareForNewFrame() translates or reprojects every cached screen location, computeDisplayAreaRect() computes the
+ * display area of every title and the titles are indexed in the screen grid.
+ * <p>
+ * The cache reads the camera through a fake GMFMTProjection since there is no live GoogleMap here, so the Maps SDK allocations of a real
+ * frame (camera position, projection and the projected points) aren't counted. The former layout (HashMap<LatLng, Point> keyed by
+ * coordinates and a new RectF per title) is measured as reference.
+ * <p>
+ * The results are printed in logcat with the GMFMTSlotArraysAlloc tag.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class GMFMTSlotArraysAllocationBenchmark {
+	private static final String TAG = "GMFMTSlotArraysAlloc";
+	private static final int TITLE_COUNT = 500;
+	private static final int WARMUP_FRAMES = 8;
+	private static final int FRAMES = 100;
+	private static final int VIEW_WIDTH = 1080;
+	private static final int VIEW_HEIGHT = 1920;
+	private static final float MAX_TEXT_WIDTH = 400;
+	private static final float MAX_TEXT_HEIGHT = 100;
+	private static final float TEXT_PADDING_TO_MARKER = 20;
+
+	/* Camera positions of the frames, in a loop: a pan, a zoom with a rotation, then back */
+	private static final CameraPosition[] CAMERA_POSITIONS = {//
+		new CameraPosition(new LatLng(37.48, 126.93), 14, 0, 0),//
+		new CameraPosition(new LatLng(37.481, 126.931), 14, 0, 0),//
+		new CameraPosition(new LatLng(37.481, 126.931), 14.5f, 0, 10),//
+		new CameraPosition(new LatLng(37.481, 126.931), 14, 0, 0)//
+	};
+
+	private final TextPaint textPaint = createTextPaint();
+	private final FloatingMarkerTitlesStats stats = new FloatingMarkerTitlesStats();
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void slotArraysFrame() {
+		final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+		final FloatingMarkerTitlesOverlay[] fmto = new FloatingMarkerTitlesOverlay[1];
+		InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+			@Override
+			public void run() {
+				fmto[0] = new FloatingMarkerTitlesOverlay(context);
+			}
+		});
+		final FakeProjection projection = new FakeProjection(context.getResources().getDisplayMetrics().density);
+		final GMFMTGeometryCache geometryCache = new GMFMTGeometryCache(fmto[0], projection);
+		final Canvas canvas = new Canvas(Bitmap.createBitmap(VIEW_WIDTH, VIEW_HEIGHT, Bitmap.Config.ALPHA_8));
+		final GMFMTScreenGrid grid = new GMFMTScreenGrid();
+
+		final List<MarkerInfo> markers = createMarkers();
+		final GMFMTSlotAllocator slots = new GMFMTSlotAllocator();
+		for (int i = 0; i < markers.size(); i++) {
+			markers.get(i).slot = slots.acquire();
+		}
+		// Markers removed then added again reuse their slots, the cache arrays never need to grow
+		for (int i = 0; i < markers.size(); i += 2) {
+			slots.release(markers.get(i).slot);
+		}
+		for (int i = 0; i < markers.size(); i += 2) {
+			markers.get(i).slot = slots.acquire();
+		}
+		assertEquals(TITLE_COUNT, slots.getSlotCount());
+
+		for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+			geometryCacheFrame(fmto[0], geometryCache, projection, canvas, markers, grid, frame);
+		}
+
+		Debug.startAllocCounting();
+		Debug.resetThreadAllocCount();
+		final long start = SystemClock.elapsedRealtimeNanos();
+		for (int frame = 0; frame < FRAMES; frame++) {
+			geometryCacheFrame(fmto[0], geometryCache, projection, canvas, markers, grid, frame);
+		}
+		final long elapsed = SystemClock.elapsedRealtimeNanos() - start;
+		final int allocations = Debug.getThreadAllocCount();
+		Debug.stopAllocCounting();
+
+		log("slot arrays", elapsed, allocations);
+		assertEquals(0, allocations);
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void hashMapFrame() {
+		final List<MarkerInfo> markers = createMarkers();
+		final Map<LatLng, Point> screenLocations = new HashMap<>();
+		for (int i = 0; i < markers.size(); i++) {
+			screenLocations.put(markers.get(i).getCoordinates(), new Point((i * 37) % VIEW_WIDTH, (i * 53) % VIEW_HEIGHT));
+		}
+		final List<RectF> displayAreas = new ArrayList<>(TITLE_COUNT);
+
+		for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+			hashMapFrame(markers, screenLocations, displayAreas, panDelta(frame));
+		}
+
+		Debug.startAllocCounting();
+		Debug.resetThreadAllocCount();
+		final long start = SystemClock.elapsedRealtimeNanos();
+		for (int frame = 0; frame < FRAMES; frame++) {
+			hashMapFrame(markers, screenLocations, displayAreas, panDelta(frame));
+		}
+		final long elapsed = SystemClock.elapsedRealtimeNanos() - start;
+		final int allocations = Debug.getThreadAllocCount();
+		Debug.stopAllocCounting();
+
+		log("hash map", elapsed, allocations);
+	}
+
+	/**
+	 * Same geometry work as a frame of FloatingMarkerTitlesOverlay, with the camera at the _frame position of the CAMERA_POSITIONS loop.
+	 */
+	private static void geometryCacheFrame(@NonNull final FloatingMarkerTitlesOverlay _fmto,
+		@NonNull final GMFMTGeometryCache _geometryCache, @NonNull final FakeProjection _projection, @NonNull final Canvas _canvas,
+		@NonNull final List<MarkerInfo> _markers, @NonNull final GMFMTScreenGrid _grid, final int _frame) {
+		_projection.cameraPosition = CAMERA_POSITIONS[_frame % CAMERA_POSITIONS.length];
+		_geometryCache.prepareForNewFrame(_canvas);
+		for (int i = 0; i < _markers.size(); i++) {
+			final MarkerInfo mi = _markers.get(i);
+			_geometryCache.computeDisplayAreaRect(mi, mi.displayArea);
+		}
+		_grid.rebuild(_markers, _geometryCache.getViewWidth(), _geometryCache.getViewHeight(), _fmto.maxTextWidth);
+	}
+
+	/**
+	 * Former layout: the screen locations are looked up by coordinates and every display area is a new RectF.
+	 */
+	private void hashMapFrame(@NonNull final List<MarkerInfo> _markers, @NonNull final Map<LatLng, Point> _screenLocations,
+		@NonNull final List<RectF> _displayAreas, final int _panDelta) {
+		for (final Point point : _screenLocations.values()) {
+			point.offset(_panDelta, -_panDelta);
+		}
+		_displayAreas.clear();
+		for (int i = 0; i < _markers.size(); i++) {
+			final MarkerInfo mi = _markers.get(i);
+			final Point point = _screenLocations.get(mi.getCoordinates());
+			final GMFMTTextLayout textLayout = GMFMTTextLayout.of(mi, textPaint, MAX_TEXT_WIDTH, MAX_TEXT_HEIGHT, stats);
+			_displayAreas.add(new RectF(//
+				point.x + TEXT_PADDING_TO_MARKER,//
+				point.y - textLayout.getHeight() / 2,//
+				point.x + textLayout.getWidth() + TEXT_PADDING_TO_MARKER,//
+				point.y + textLayout.getHeight() / 2//
+			));
+		}
+	}
+
+	/**
+	 * The reference camera pans back and forth, so it goes through the same screen locations as during the (even number of) warm up frames
+	 */
+	private static int panDelta(final int _frame) {
+		return _frame % 2 == 0 ? 1 : -1;
+	}
+
+	private static void log(@NonNull final String _name, final long _elapsedNanos, final int _allocations) {
+		Log.i(TAG, String.format(Locale.US, "%s, %d titles x %d frames: %.3fms per frame, %.1f objects allocated per frame",//
+			_name, TITLE_COUNT, FRAMES, _elapsedNanos / 1e6 / FRAMES, (float) _allocations / FRAMES));
+	}
+
+	@NonNull
+	private static TextPaint createTextPaint() {
+		final TextPaint res = new TextPaint();
+		res.setFlags(Paint.ANTI_ALIAS_FLAG);
+		res.setTextSize(40);
+		return res;
+	}
+
+	@NonNull
+	private static List<MarkerInfo> createMarkers() {
+		final List<MarkerInfo> res = new ArrayList<>(TITLE_COUNT);
+		for (int i = 0; i < TITLE_COUNT; i++) {
+			final LatLng coordinates = new LatLng(37.45 + (i / 25) * 0.003, 126.90 + (i % 25) * 0.003);
+			res.add(new MarkerInfo(coordinates, "Rental office " + i, Color.BLACK));
+		}
+		return res;
+	}
+
+	/**
+	 * Projection of a camera without tilt, computed like GMFMTGeometryCache.reprojectAll() with the camera target at the center of the
+	 * view. The projected point is reused so that only the allocations of the cache itself are counted.
+	 */
+	private static final class FakeProjection implements GMFMTProjection {
+		private final float density;
+		@NonNull
+		private final Point screenLocation = new Point();
+		@NonNull
+		private final LatLngBounds visibleBounds = new LatLngBounds(new LatLng(37.40, 126.85), new LatLng(37.55, 127.00));
+		@NonNull
+		CameraPosition cameraPosition = CAMERA_POSITIONS[0];
+
+		FakeProjection(final float _density) {
+			density = _density;
+		}
+
+		@NonNull
+		@Override
+		public CameraPosition getCameraPosition() {
+			return cameraPosition;
+		}
+
+		@NonNull
+		@Override
+		public Point toScreenLocation(@NonNull final LatLng _latLng) {
+			final double scale = GMFMTWebMercator.worldSizePx(cameraPosition.zoom, density);
+			final double bearing = Math.toRadians(cameraPosition.bearing);
+			final double cos = Math.cos(bearing) * scale;
+			final double sin = Math.sin(bearing) * scale;
+			double dx = GMFMTWebMercator.worldX(_latLng.longitude) - GMFMTWebMercator.worldX(cameraPosition.target.longitude);
+			dx -= Math.rint(dx);
+			final double dy = GMFMTWebMercator.worldY(_latLng.latitude) - GMFMTWebMercator.worldY(cameraPosition.target.latitude);
+			screenLocation.x = (int) Math.round(VIEW_WIDTH / 2.0 + dx * cos + dy * sin);
+			screenLocation.y = (int) Math.round(VIEW_HEIGHT / 2.0 - dx * sin + dy * cos);
+			return screenLocation;
+		}
+
+		@NonNull
+		@Override
+		public LatLngBounds getVisibleBounds() {
+			return visibleBounds;
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package com.exlyo.gmfmt;
+
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.Debug;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import com.google.android.gms.maps.model.LatLng;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tracks the text layouts built and the objects allocated while looking up the floating titles text layouts over steady frames, and
+ * checks that a layout is only rebuilt when its key changes.
+ * <p>
+ * The allocation counts are printed in logcat with the GMFMTTextLayoutAlloc tag.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class GMFMTTextLayoutAllocationTest {
+	private static final String TAG = "GMFMTTextLayoutAlloc";
+	private static final int TITLE_COUNT = 300;
+	private static final int STEADY_FRAMES = 100;
+	private static final float MAX_WIDTH = 400;
+	private static final float MAX_HEIGHT = 100;
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void steadyFramesDontAllocate() {
+		final TextPaint textPaint = createTextPaint();
+		final List<MarkerInfo> markers = createMarkers();
+		final FloatingMarkerTitlesStats stats = new FloatingMarkerTitlesStats();
+
+		stats.startFrame();
+		final StaticLayout[] firstFrameLayouts = new StaticLayout[TITLE_COUNT];
+		for (int i = 0; i < TITLE_COUNT; i++) {
+			firstFrameLayouts[i] = GMFMTTextLayout.of(markers.get(i), textPaint, MAX_WIDTH, MAX_HEIGHT, stats).getDrawingLayout();
+			assertNotNull(firstFrameLayouts[i]);
+		}
+		assertEquals(TITLE_COUNT, stats.layoutsBuilt);
+
+		stats.startFrame();
+		Debug.startAllocCounting();
+		Debug.resetThreadAllocCount();
+		for (int frame = 0; frame < STEADY_FRAMES; frame++) {
+			for (int i = 0; i < TITLE_COUNT; i++) {
+				GMFMTTextLayout.of(markers.get(i), textPaint, MAX_WIDTH, MAX_HEIGHT, stats);
+			}
+		}
+		final int allocations = Debug.getThreadAllocCount();
+		Debug.stopAllocCounting();
+
+		Log.i(TAG, TITLE_COUNT + " titles x " + STEADY_FRAMES + " steady frames: " + stats.layoutsBuilt + " layouts built, " + allocations
+			+ " objects allocated");
+		assertEquals(0, stats.layoutsBuilt);
+		assertEquals(0, allocations);
+		for (int i = 0; i < TITLE_COUNT; i++) {
+			assertSame(firstFrameLayouts[i], markers.get(i).textLayout.getDrawingLayout());
+		}
+	}
+
+	@Test
+	public void keyChangesRebuildTheLayout() {
+		final TextPaint textPaint = createTextPaint();
+		final TextPaint boldTextPaint = createTextPaint();
+		final MarkerInfo markerInfo = new MarkerInfo(new LatLng(0, 0), "Title", Color.BLACK);
+		final FloatingMarkerTitlesStats stats = new FloatingMarkerTitlesStats();
+		stats.startFrame();
+
+		final GMFMTTextLayout textLayout = GMFMTTextLayout.of(markerInfo, textPaint, MAX_WIDTH, MAX_HEIGHT, stats);
+		GMFMTTextLayout.of(markerInfo, textPaint, MAX_WIDTH, MAX_HEIGHT, stats);
+		assertEquals(1, stats.layoutsBuilt);
+
+		markerInfo.setTitle("Another title");
+		GMFMTTextLayout.of(markerInfo, textPaint, MAX_WIDTH, MAX_HEIGHT, stats);
+		assertEquals(2, stats.layoutsBuilt);
+
+		GMFMTTextLayout.of(markerInfo, boldTextPaint, MAX_WIDTH, MAX_HEIGHT, stats);
+		assertEquals(3, stats.layoutsBuilt);
+
+		boldTextPaint.setTextSize(boldTextPaint.getTextSize() * 2);
+		GMFMTTextLayout.of(markerInfo, boldTextPaint, MAX_WIDTH, MAX_HEIGHT, stats);
+		assertEquals(4, stats.layoutsBuilt);
+
+		GMFMTTextLayout.of(markerInfo, boldTextPaint, MAX_WIDTH / 2, MAX_HEIGHT, stats);
+		GMFMTTextLayout.of(markerInfo, boldTextPaint, MAX_WIDTH / 2, MAX_HEIGHT / 2, stats);
+		assertEquals(6, stats.layoutsBuilt);
+
+		// The same instance is kept and updated in place
+		assertSame(textLayout, GMFMTTextLayout.of(markerInfo, boldTextPaint, MAX_WIDTH / 2, MAX_HEIGHT / 2, stats));
+		assertEquals(6, stats.layoutsBuilt);
+		assertEquals(6, textLayout.getVersion());
+	}
+
+	@NonNull
+	private static TextPaint createTextPaint() {
+		final TextPaint res = new TextPaint();
+		res.setFlags(Paint.ANTI_ALIAS_FLAG);
+		res.setTextSize(40);
+		return res;
+	}
+
+	@NonNull
+	private static List<MarkerInfo> createMarkers() {
+		final List<MarkerInfo> res = new ArrayList<>(TITLE_COUNT);
+		for (int i = 0; i < TITLE_COUNT; i++) {
+			res.add(new MarkerInfo(new LatLng(0, 0), "Rental office " + i, Color.BLACK));
+		}
+		return res;
+	}
+}
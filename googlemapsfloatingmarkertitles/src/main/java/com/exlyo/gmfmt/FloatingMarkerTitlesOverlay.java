@@ -1,12 +1,13 @@
 package com.exlyo.gmfmt;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.Point;
 import android.graphics.RectF;
 import android.graphics.Typeface;
+import android.text.StaticLayout;
 import android.text.TextPaint;
 import android.util.AttributeSet;
 import android.view.View;
@@ -17,21 +18,51 @@ import androidx.annotation.Nullable;
 import com.google.android.gms.maps.GoogleMap;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This view is meant to be overlayed on top of a map with the exact same dimensions as the map.
- * It will attempt to redraw all the time to keep the marker floating titles up to date with the map below.
+ * <p>
+ * The marker methods can be called from any thread without blocking the drawing: they only record the change, which is applied by the
+ * drawing thread at the start of the next frame. Recorded changes are coalesced by marker ID (see GMFMTMarkerChanges) and the drawing
+ * thread only holds their lock to swap them with an empty set of changes.
+ * <p>
+ * By default it only redraws while the camera is moving, while titles are fading in, and until every tracked marker has been checked
+ * after a change. Changes made directly on a MarkerInfo that is already tracked must be followed by a call to notifyMarkersChanged().
+ * Use setIdleAwareRendering(false) to redraw all the time instead.
  */
 public class FloatingMarkerTitlesOverlay extends View {
 	/* The fade in animation time for text appearing */
 	private static final long FADE_ANIMATION_TIME = 300;
 
+	/* Default memory budget of the rendered floating titles bitmaps */
+	private static final long DEFAULT_TITLE_BITMAP_CACHE_SIZE_BYTES = 4 * 1024 * 1024;
+
+	/* Number of markers the candidate cursor may walk per check, skipping the markers outside of the visible region */
+	private static final int CANDIDATE_SCAN_FACTOR = 16;
+
 	@Nullable
 	private GMFMTGeometryCache geometryCache;
 
+	@Nullable
+	private GoogleMap googleMap;
+
+	/* Marker changes requested from any thread, applied by the drawing thread at the start of each frame */
+	@NonNull
+	private final Object markerChangesLock = new Object();
+	@NonNull
+	private GMFMTMarkerChanges pendingMarkerChanges = new GMFMTMarkerChanges();
+	/* Empty set of changes swapped with pendingMarkerChanges to apply them, only accessed by the drawing thread */
+	@NonNull
+	private GMFMTMarkerChanges appliedMarkerChanges = new GMFMTMarkerChanges();
+
+	/* Everything below is only accessed by the drawing thread */
 	@NonNull
 	private final Map<Long, MarkerInfo> markerIdToMarkerInfoMap = new HashMap<>();
 
@@ -42,17 +73,71 @@ public class FloatingMarkerTitlesOverlay extends View {
 	@NonNull
 	private final List<MarkerInfo> displayedMarkersList = new ArrayList<>();
 
-	/* Map of displayed MarkerInfo to the rectangle their floating text is taking on the screen */
+	/* Slots (see MarkerInfo.slot) of the markers currently displayed as floating text */
+	@NonNull
+	private final BitSet displayedMarkerSlots = new BitSet();
+
+	/* Index in markerInfoList of the next marker to check for display */
+	private int candidateCursor;
+
+	/* Untracked markers are left in markerInfoList and displayedMarkersList until compactMarkerLists() removes them all in one pass */
+	private boolean markerListsNeedCompaction;
+	/* Untracked markers still in markerInfoList, so that tracking one of them again doesn't add it twice */
+	@NonNull
+	private final Set<MarkerInfo> untrackedMarkersInList = new HashSet<>();
+
+	/* Spatial index of the displayed floating titles rectangles, used to only check the neighbouring titles for conflicts */
+	@NonNull
+	private final GMFMTScreenGrid displayedMarkersGrid = new GMFMTScreenGrid();
+
+	/* Hands out MarkerInfo.slot */
+	@NonNull
+	private final GMFMTSlotAllocator markerSlots = new GMFMTSlotAllocator();
+
+	/* Reused between frames by computeMarkersToAdd() */
+	@NonNull
+	private final List<MarkerInfo> markersToAdd = new ArrayList<>();
+
+	/* Reused between frames by removeConflictedMarkerTitles() */
+	@NonNull
+	private final Set<MarkerInfo> markerInfoToRemove = new HashSet<>();
+	@NonNull
+	private final List<MarkerInfo> keptMarkersList = new ArrayList<>();
+
+	/* Whether the overlay stops redrawing once the map is still and all titles are settled */
+	private boolean idleAwareRendering = true;
+
+	/* Set when the tracked markers change */
+	private boolean markersChanged = true;
+
+	/* Number of markers still to check for new titles since the last camera move or markers change */
+	private int remainingCandidateChecks;
+
+	private long lastUpdateDurationNanos;
+
 	@NonNull
-	private final Map<MarkerInfo, RectF> displayedMarkerIdToScreenRect = new HashMap<>();
+	private final GMFMTFrameCounter frameCounter = new GMFMTFrameCounter();
 
-	/* Map of displayed MarkerInfo to time they were added, to properly calculate the animation state (text alpha) */
+	/* Work counters, incremented by the drawing thread and its helpers */
 	@NonNull
-	private final Map<MarkerInfo, Long> displayedMarkerIdToAddedTime = new HashMap<>();
+	final FloatingMarkerTitlesStats stats = new FloatingMarkerTitlesStats();
+
+	private volatile boolean debugHudEnabled;
+	@Nullable
+	private TextPaint debugHudTextPaint;
+	@Nullable
+	private Paint debugHudBackgroundPaint;
+
+	/* Rendered floating titles, only accessed by the drawing thread */
+	@NonNull
+	private final GMFMTTitleBitmapCache titleBitmapCache = new GMFMTTitleBitmapCache(stats, DEFAULT_TITLE_BITMAP_CACHE_SIZE_BYTES);
+	@NonNull
+	private final Paint titleBitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+	private volatile long titleBitmapCacheSizeBytes = DEFAULT_TITLE_BITMAP_CACHE_SIZE_BYTES;
 
 	float textPaddingToMarker;
 
-	private int maxFloatingTitlesCount;
+	private volatile int maxFloatingTitlesCount;
 
 	private int maxNewMarkersCheckPerFrame;
 
@@ -111,11 +196,9 @@ public class FloatingMarkerTitlesOverlay extends View {
 	 * Set the maximum number of floating titles displayed at the same time
 	 */
 	public void setMaxFloatingTitlesCount(final int _maxFloatingTitlesCount) {
-		synchronized (markerInfoList) {
-			maxFloatingTitlesCount = _maxFloatingTitlesCount;
-			displayedMarkersList.clear();
-			displayedMarkerIdToScreenRect.clear();
-			displayedMarkerIdToAddedTime.clear();
+		maxFloatingTitlesCount = _maxFloatingTitlesCount;
+		synchronized (markerChangesLock) {
+			pendingMarkerChanges.resetDisplay = true;
 		}
 		postInvalidate();
 	}
@@ -124,13 +207,25 @@ public class FloatingMarkerTitlesOverlay extends View {
 	 * Set the maximum number of checks for new markers every display frame. Raising the value will decrease performance for maps with a
 	 * lot of markers, but increase responsiveness when a marker's title should appear. The default value is 10.
 	 * <p>
-	 * For example, if you set this value to 50 and you have 2000 markers, it might take up to 2000/50 = 40 frames before a specific
-	 * marker's title to appear when it should display. Assuming you're having 60 frames per second, it will take about 0.66 seconds.
+	 * Only the markers inside the visible region count as checks: the markers outside of it are skipped, up to 16 times this value per
+	 * frame. For example, if you set this value to 50 and you have 2000 markers, it might take up to 2000/50 = 40 frames before a specific
+	 * marker's title to appear when it should display, and fewer if most markers are off screen. Assuming you're having 60 frames per
+	 * second, it will take at most about 0.66 seconds.
 	 */
 	public void setSetMaxNewMarkersCheckPerFrame(final int _setMaxNewMarkersCheckPerFrame) {
 		maxNewMarkersCheckPerFrame = _setMaxNewMarkersCheckPerFrame;
 	}
 
+	/**
+	 * Set the memory budget of the cache of rendered floating titles. Titles are rendered once into bitmaps and then drawn with a single
+	 * bitmap draw per frame, the least recently drawn ones being dropped beyond this budget. A budget of 0 disables the cache, titles are
+	 * then rendered on every frame. The default value is 4 MB.
+	 */
+	public void setTitleBitmapCacheSizeBytes(final long _titleBitmapCacheSizeBytes) {
+		titleBitmapCacheSizeBytes = _titleBitmapCacheSizeBytes;
+		postInvalidate();
+	}
+
 	public void setMaxTextWidthDIP(final int _maxTextWidthDIP) {
 		maxTextWidth = GMFMTUtils.dipToPixels(getContext(), _maxTextWidthDIP);
 	}
@@ -139,39 +234,96 @@ public class FloatingMarkerTitlesOverlay extends View {
 		maxTextHeight = GMFMTUtils.dipToPixels(getContext(), _maxTextHeightDIP);
 	}
 
+	/**
+	 * Sets whether the overlay only redraws when something changed (the default), or all the time. In idle-aware mode, camera moves are
+	 * only noticed through notifyCameraMoved().
+	 */
+	public void setIdleAwareRendering(final boolean _idleAwareRendering) {
+		idleAwareRendering = _idleAwareRendering;
+		postInvalidate();
+	}
+
+	/**
+	 * Sets the map the overlay is drawn on top of.
+	 * <p>
+	 * The overlay doesn't register any listener on the map, so that the application keeps its own. While idle-aware rendering is enabled
+	 * (the default), the application must call notifyCameraMoved() from its GoogleMap.OnCameraMoveListener, otherwise the floating titles
+	 * stop following the map once they are settled.
+	 */
 	public void setSource(@Nullable final GoogleMap _googleMap) {
+		googleMap = _googleMap;
 		if (_googleMap == null) {
 			clearMarkers();
 			geometryCache = null;
 		} else {
-			geometryCache = new GMFMTGeometryCache(this, _googleMap);
+			geometryCache = new GMFMTGeometryCache(this, new GMFMTGoogleMapProjection(_googleMap));
 		}
+		notifyMarkersChanged();
+	}
+
+	/**
+	 * Wakes the overlay up for a camera move. Meant to be called from the map's GoogleMap.OnCameraMoveListener, see setSource().
+	 */
+	public void notifyCameraMoved() {
+		postInvalidateOnAnimation();
+	}
+
+	/**
+	 * Requests a redraw after a tracked MarkerInfo was modified (title, visibility, coordinates, ...).
+	 */
+	public void notifyMarkersChanged() {
+		synchronized (markerChangesLock) {
+			pendingMarkerChanges.markersChanged = true;
+		}
+		postInvalidate();
+	}
+
+	/**
+	 * Returns the work done by the overlay during its last drawn frame. The returned object is updated after every frame and can be polled
+	 * from any thread.
+	 */
+	@NonNull
+	public FloatingMarkerTitlesStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Sets whether the overlay draws its stats (see getStats()) in its top left corner. Meant for debugging only.
+	 */
+	public void setDebugHudEnabled(final boolean _debugHudEnabled) {
+		debugHudEnabled = _debugHudEnabled;
+		postInvalidate();
+	}
+
+	/**
+	 * Number of frames the overlay has drawn over the last minute. Stays at 0 while the map is still in idle-aware rendering mode.
+	 */
+	public int getFramesDrawnPerMinute() {
+		return frameCounter.getFramesDrawnLastMinute();
 	}
 
 	/**
 	 * Removes all the tracked markers from the overlay.
 	 */
 	public void clearMarkers() {
-		synchronized (markerInfoList) {
-			markerIdToMarkerInfoMap.clear();
-			markerInfoList.clear();
-			displayedMarkersList.clear();
-			displayedMarkerIdToScreenRect.clear();
-			displayedMarkerIdToAddedTime.clear();
+		synchronized (markerChangesLock) {
+			pendingMarkerChanges.clearAll();
 		}
+		postInvalidate();
 	}
 
 	/**
-	 * Adds a marker to track with the overlay.
+	 * Adds a marker to track with the overlay. Adding a marker with the ID of a tracked marker replaces it. A MarkerInfo instance can only
+	 * be tracked under one ID at a time.
 	 *
 	 * @param _id:         ID to track the marker for further removal
 	 * @param _markerInfo: MarkerInfo object containing the info of the marker
 	 */
 	public void addMarker(final long _id, @NonNull final MarkerInfo _markerInfo) {
-		synchronized (markerInfoList) {
-			markerIdToMarkerInfoMap.put(_id, _markerInfo);
-			markerInfoList.add(_markerInfo);
+		synchronized (markerChangesLock) {
+			pendingMarkerChanges.add(_id, _markerInfo);
 		}
+		postInvalidate();
 	}
 
 	/**
@@ -180,20 +332,206 @@ public class FloatingMarkerTitlesOverlay extends View {
 	 * @param _id: ID of the marker to remove from the overlay
 	 */
 	public void removeMarker(final long _id) {
-		synchronized (markerInfoList) {
-			final MarkerInfo markerInfo = markerIdToMarkerInfoMap.get(_id);
-			if (markerInfo != null) {
-				markerInfoList.remove(markerInfo);
-				displayedMarkersList.remove(markerInfo);
-				displayedMarkerIdToScreenRect.remove(markerInfo);
-				displayedMarkerIdToAddedTime.remove(markerInfo);
+		synchronized (markerChangesLock) {
+			pendingMarkerChanges.remove(_id);
+		}
+		postInvalidate();
+	}
+
+	/**
+	 * Replaces all the tracked markers with _markers in a single step. The markers whose ID is already tracked are updated in place (see
+	 * applyDiff()), the tracked markers whose ID is missing from _markers are removed.
+	 */
+	public void setMarkers(@NonNull final Map<Long, MarkerInfo> _markers) {
+		final Map<Long, MarkerInfo> markers = new HashMap<>(_markers);
+		synchronized (markerChangesLock) {
+			pendingMarkerChanges.set(markers);
+		}
+		postInvalidate();
+	}
+
+	/**
+	 * Applies a batch of marker changes in a single step, with a single redraw.
+	 *
+	 * @param _added:      markers to start tracking, by ID. A marker with the ID of a tracked marker replaces it.
+	 * @param _updated:    new values of tracked markers, by ID. The values are copied into the tracked MarkerInfo, so a title or color
+	 *                     change doesn't make the floating title disappear and fade in again. An ID that isn't tracked is added.
+	 * @param _removedIds: IDs of the markers to stop tracking
+	 */
+	public void applyDiff(@Nullable final Map<Long, MarkerInfo> _added, @Nullable final Map<Long, MarkerInfo> _updated,
+		@Nullable final Collection<Long> _removedIds) {
+		synchronized (markerChangesLock) {
+			if (_removedIds != null) {
+				for (final Long id : _removedIds) {
+					pendingMarkerChanges.remove(id);
+				}
+			}
+			if (_added != null) {
+				for (final Map.Entry<Long, MarkerInfo> entry : _added.entrySet()) {
+					pendingMarkerChanges.add(entry.getKey(), entry.getValue());
+				}
+			}
+			if (_updated != null) {
+				for (final Map.Entry<Long, MarkerInfo> entry : _updated.entrySet()) {
+					pendingMarkerChanges.update(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+		postInvalidate();
+	}
+
+	/**
+	 * Applies the recorded marker changes. Called by the drawing thread only.
+	 */
+	private void applyPendingMarkerChanges() {
+		final GMFMTMarkerChanges changes;
+		synchronized (markerChangesLock) {
+			if (pendingMarkerChanges.isEmpty()) {
+				return;
+			}
+			changes = pendingMarkerChanges;
+			pendingMarkerChanges = appliedMarkerChanges;
+			appliedMarkerChanges = changes;
+		}
+		if (changes.clearAll) {
+			untrackAllMarkers();
+		}
+		if (changes.setMarkers != null) {
+			applySetMarkers(changes.setMarkers);
+		}
+		for (final Map.Entry<Long, GMFMTMarkerChanges.Change> entry : changes.changes.entrySet()) {
+			final long id = entry.getKey();
+			final GMFMTMarkerChanges.Change change = entry.getValue();
+			if (change.added != null) {
+				trackMarker(id, change.added);
+			}
+			if (change.updated != null) {
+				updateMarker(id, change.updated);
+			}
+			if (change.removed) {
+				final MarkerInfo markerInfo = markerIdToMarkerInfoMap.remove(id);
+				if (markerInfo != null) {
+					untrackMarker(markerInfo);
+				}
+			}
+		}
+		if (changes.resetDisplay) {
+			displayedMarkersList.clear();
+			displayedMarkerSlots.clear();
+		}
+		compactMarkerLists();
+		changes.reset();
+		markersChanged = true;
+	}
+
+	private void trackMarker(final long _id, @NonNull final MarkerInfo _markerInfo) {
+		final MarkerInfo previousMarkerInfo = markerIdToMarkerInfoMap.put(_id, _markerInfo);
+		if (previousMarkerInfo == _markerInfo) {
+			return;
+		}
+		if (previousMarkerInfo != null) {
+			untrackMarker(previousMarkerInfo);
+		}
+		_markerInfo.slot = markerSlots.acquire();
+		// A marker untracked earlier in the same batch of changes is still in markerInfoList
+		if (!untrackedMarkersInList.remove(_markerInfo)) {
+			markerInfoList.add(_markerInfo);
+		}
+	}
+
+	private void updateMarker(final long _id, @NonNull final MarkerInfo _markerInfo) {
+		final MarkerInfo trackedMarkerInfo = markerIdToMarkerInfoMap.get(_id);
+		if (trackedMarkerInfo == null) {
+			trackMarker(_id, _markerInfo);
+		} else if (trackedMarkerInfo != _markerInfo) {
+			trackedMarkerInfo.copyValuesFrom(_markerInfo);
+		}
+	}
+
+	private void applySetMarkers(@NonNull final Map<Long, MarkerInfo> _markers) {
+		final List<Long> removedIds = new ArrayList<>();
+		for (final Long id : markerIdToMarkerInfoMap.keySet()) {
+			if (!_markers.containsKey(id)) {
+				removedIds.add(id);
+			}
+		}
+		for (int i = 0; i < removedIds.size(); i++) {
+			untrackMarker(markerIdToMarkerInfoMap.remove(removedIds.get(i)));
+		}
+		for (final Map.Entry<Long, MarkerInfo> entry : _markers.entrySet()) {
+			updateMarker(entry.getKey(), entry.getValue());
+		}
+	}
+
+	private void untrackAllMarkers() {
+		for (int i = 0; i < markerInfoList.size(); i++) {
+			markerInfoList.get(i).slot = -1;
+		}
+		markerSlots.reset();
+		markerIdToMarkerInfoMap.clear();
+		markerInfoList.clear();
+		displayedMarkersList.clear();
+		displayedMarkerSlots.clear();
+		untrackedMarkersInList.clear();
+		markerListsNeedCompaction = false;
+		candidateCursor = 0;
+		titleBitmapCache.clear();
+	}
+
+	/**
+	 * Stops tracking _markerInfo, which was removed from markerIdToMarkerInfoMap. It is left in the marker lists, where a slot of -1
+	 * marks it for removal by compactMarkerLists().
+	 */
+	private void untrackMarker(@NonNull final MarkerInfo _markerInfo) {
+		displayedMarkerSlots.clear(_markerInfo.slot);
+		markerSlots.release(_markerInfo.slot);
+		_markerInfo.slot = -1;
+		untrackedMarkersInList.add(_markerInfo);
+		markerListsNeedCompaction = true;
+	}
+
+	/**
+	 * Removes the untracked markers from the marker lists in a single pass over each list, instead of one list removal per marker.
+	 */
+	private void compactMarkerLists() {
+		if (!markerListsNeedCompaction) {
+			return;
+		}
+		int keptCount = 0;
+		for (int i = 0; i < markerInfoList.size(); i++) {
+			final MarkerInfo mi = markerInfoList.get(i);
+			if (mi.slot >= 0) {
+				markerInfoList.set(keptCount++, mi);
+			}
+		}
+		markerInfoList.subList(keptCount, markerInfoList.size()).clear();
+
+		// A marker tracked again got a new slot, which isn't displayed yet
+		keptCount = 0;
+		for (int i = 0; i < displayedMarkersList.size(); i++) {
+			final MarkerInfo mi = displayedMarkersList.get(i);
+			if (mi.slot >= 0 && displayedMarkerSlots.get(mi.slot)) {
+				displayedMarkersList.set(keptCount++, mi);
 			}
 		}
+		displayedMarkersList.subList(keptCount, displayedMarkersList.size()).clear();
+
+		untrackedMarkersInList.clear();
+		markerListsNeedCompaction = false;
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		// Don't keep the removed markers referenced while the overlay isn't drawn
+		applyPendingMarkerChanges();
 	}
 
 	@Override
 	public void draw(final Canvas _canvas) {
 		super.draw(_canvas);
+		applyPendingMarkerChanges();
+		titleBitmapCache.setMaxSizeBytes(titleBitmapCacheSizeBytes);
 		if (maxFloatingTitlesCount == 0) {
 			return;
 		}
@@ -201,17 +539,66 @@ public class FloatingMarkerTitlesOverlay extends View {
 		if (_canvas == null || gc == null) {
 			return;
 		}
-		synchronized (markerInfoList) {
-			drawFloatingMarkerTitles(_canvas, gc);
+		frameCounter.recordFrame();
+		final long frameStartTime = System.nanoTime();
+		stats.startFrame();
+		final boolean needsNextFrame = drawFloatingMarkerTitles(_canvas, gc);
+		stats.publishFrame(//
+			System.nanoTime() - frameStartTime,//
+			lastUpdateDurationNanos,//
+			markerInfoList.size(),//
+			titleBitmapCache.getSizeBytes()//
+		);
+		if (debugHudEnabled) {
+			drawDebugHud(_canvas);
+		}
+		if (needsNextFrame || !idleAwareRendering) {
+			postInvalidateOnAnimation();
 		}
-		postInvalidate();
 	}
 
-	private void drawFloatingMarkerTitles(@NonNull final Canvas _canvas, @NonNull final GMFMTGeometryCache _geometryCache) {
-		_geometryCache.prepareForNewFrame(_canvas);
+	/**
+	 * @return true if the next frame may differ from this one: the camera moved, a title is fading in, or some markers have not been
+	 * checked for display yet.
+	 */
+	private boolean drawFloatingMarkerTitles(@NonNull final Canvas _canvas, @NonNull final GMFMTGeometryCache _geometryCache) {
+		final boolean cameraMoved = _geometryCache.prepareForNewFrame(_canvas);
+		if (cameraMoved || markersChanged) {
+			markersChanged = false;
+			remainingCandidateChecks = markerInfoList.size();
+		}
+		final long updateStartTime = System.nanoTime();
 		updateCurrentlyDisplayedMarkers(_geometryCache);
-		for (final MarkerInfo mi : displayedMarkersList) {
-			drawMarkerFloatingTitle(_canvas, mi);
+		lastUpdateDurationNanos = System.nanoTime() - updateStartTime;
+		boolean fading = false;
+		for (int i = 0; i < displayedMarkersList.size(); i++) {
+			fading |= drawMarkerFloatingTitle(_canvas, displayedMarkersList.get(i));
+		}
+		return cameraMoved || fading || remainingCandidateChecks > 0;
+	}
+
+	private void drawDebugHud(@NonNull final Canvas _canvas) {
+		TextPaint textPaint = debugHudTextPaint;
+		Paint backgroundPaint = debugHudBackgroundPaint;
+		if (textPaint == null || backgroundPaint == null) {
+			textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+			textPaint.setColor(Color.WHITE);
+			textPaint.setTextSize(GMFMTUtils.dipToPixels(getContext(), 11));
+			backgroundPaint = new Paint();
+			backgroundPaint.setColor(Color.argb(160, 0, 0, 0));
+			debugHudTextPaint = textPaint;
+			debugHudBackgroundPaint = backgroundPaint;
+		}
+		final String[] lines = stats.toString().split("\n");
+		final float lineHeight = textPaint.getFontSpacing();
+		final float padding = lineHeight / 2;
+		float width = 0;
+		for (final String line : lines) {
+			width = Math.max(width, textPaint.measureText(line));
+		}
+		_canvas.drawRect(0, 0, width + 2 * padding, lines.length * lineHeight + 2 * padding, backgroundPaint);
+		for (int i = 0; i < lines.length; i++) {
+			_canvas.drawText(lines[i], padding, padding + (i + 1) * lineHeight - textPaint.descent(), textPaint);
 		}
 	}
 
@@ -220,37 +607,34 @@ public class FloatingMarkerTitlesOverlay extends View {
 		removeOutOfViewMarkerTitles(_geometryCache);
 
 		// Remove the currently displayed marker floating titles that are in conflict with another displayed marker floating title
-		removeConflictedMarkerTitles();
+		removeConflictedMarkerTitles(_geometryCache);
 
 		// Determine the minimum z-index among the visible floating marker titles
 		float minVisibleZIndex = 0F;
 
 		// Update the displayed marker titles display area rectangles
-		for (final MarkerInfo mi : displayedMarkersList) {
-			final RectF currentArea = displayedMarkerIdToScreenRect.get(mi);
-			//We only recompute the location, because the text size is still correct and expensive to calculate
-			final Point newLocation = _geometryCache.getScreenLocation(mi.getCoordinates());
-			currentArea.set(//
-				(float) newLocation.x + textPaddingToMarker,//
-				(float) newLocation.y - currentArea.height() / 2,//
-				(float) newLocation.x + textPaddingToMarker + currentArea.width(),//
-				(float) newLocation.y + currentArea.height() / 2//
-			);
+		for (int i = 0; i < displayedMarkersList.size(); i++) {
+			final MarkerInfo mi = displayedMarkersList.get(i);
+			// The text size comes from the cached text layout, which only changes with the title (e.g. after an in place update)
+			_geometryCache.computeDisplayAreaRect(mi, mi.displayArea);
 			if (minVisibleZIndex > mi.getZIndex()) {
 				minVisibleZIndex = mi.getZIndex();
 			}
 		}
+		rebuildDisplayedMarkersGrid(_geometryCache);
 
-		// Prepare the list of markers to add
-		final List<MarkerInfo> markersToAdd = computeMarkersToAdd(_geometryCache, minVisibleZIndex);
+		// Prepare the list of markers to add, with their display area computed for the current frame
+		computeMarkersToAdd(_geometryCache, minVisibleZIndex);
 
 		// Fill the displayed markers list with markers to check
-		for (final MarkerInfo mi : markersToAdd) {
-			final RectF displayAreaRect = _geometryCache.computeDisplayAreaRect(mi);
+		final long currentTimeMillis = System.currentTimeMillis();
+		for (int i = 0; i < markersToAdd.size(); i++) {
+			final MarkerInfo mi = markersToAdd.get(i);
 			displayedMarkersList.add(mi);
-			displayedMarkerIdToScreenRect.put(mi, displayAreaRect);
-			displayedMarkerIdToAddedTime.put(mi, System.currentTimeMillis());
+			displayedMarkerSlots.set(mi.slot);
+			mi.displayedSince = currentTimeMillis;
 		}
+		markersToAdd.clear();
 	}
 
 	private void removeOutOfViewMarkerTitles(@NonNull final GMFMTGeometryCache _geometryCache) {
@@ -258,7 +642,7 @@ public class FloatingMarkerTitlesOverlay extends View {
 			final MarkerInfo mi = displayedMarkersList.get(i);
 			boolean needToRemove = false;
 			if (mi.isVisible()) {
-				if (!_geometryCache.isInScreenBounds(mi.getCoordinates())) {
+				if (!_geometryCache.isInScreenBounds(mi)) {
 					needToRemove = true;
 				}
 			} else {
@@ -268,41 +652,42 @@ public class FloatingMarkerTitlesOverlay extends View {
 				continue;
 			}
 			displayedMarkersList.remove(i);
-			displayedMarkerIdToScreenRect.remove(mi);
-			displayedMarkerIdToAddedTime.remove(mi);
+			displayedMarkerSlots.clear(mi.slot);
 		}
 	}
 
-	private void removeConflictedMarkerTitles() {
-		final List<MarkerInfo> markerInfoToRemove = new ArrayList<>();
+	private void rebuildDisplayedMarkersGrid(@NonNull final GMFMTGeometryCache _geometryCache) {
+		displayedMarkersGrid.rebuild(//
+			displayedMarkersList,//
+			_geometryCache.getViewWidth(),//
+			_geometryCache.getViewHeight(),//
+			maxTextWidth//
+		);
+	}
+
+	/**
+	 * Each displayed title is only compared with the titles sharing a cell of displayedMarkersGrid, which keeps this close to linear in
+	 * the number of displayed titles instead of comparing every pair.
+	 */
+	private void removeConflictedMarkerTitles(@NonNull final GMFMTGeometryCache _geometryCache) {
+		markerInfoToRemove.clear();
+		rebuildDisplayedMarkersGrid(_geometryCache);
 
 		float minZIndex = 0;
-		for (final MarkerInfo mi : displayedMarkerIdToScreenRect.keySet()) {
+		for (int i = 0; i < displayedMarkersList.size(); i++) {
+			final MarkerInfo mi = displayedMarkersList.get(i);
 			if (mi.getZIndex() < minZIndex) {
 				minZIndex = mi.getZIndex();
 			}
-			for (final MarkerInfo mi2 : displayedMarkerIdToScreenRect.keySet()) {
-				if (mi == mi2) {
-					continue;
-				}
-				if (markerInfoToRemove.contains(mi)) {
-					continue;
-				}
-				if (markerInfoToRemove.contains(mi2)) {
-					continue;
-				}
-				final boolean displayConflict;
-				final RectF miDisplayArea = displayedMarkerIdToScreenRect.get(mi);
-				final RectF mi2DisplayArea = displayedMarkerIdToScreenRect.get(mi2);
-				displayConflict = RectF.intersects(miDisplayArea, mi2DisplayArea);
-				if (displayConflict) {
-					if (mi.getZIndex() > mi2.getZIndex()) {
-						markerInfoToRemove.add(mi2);
-					} else {
-						markerInfoToRemove.add(mi);
-					}
-
-					break;
+			if (markerInfoToRemove.contains(mi)) {
+				continue;
+			}
+			final MarkerInfo conflictedMarkerInfo = findConflictedDisplayedMarker(mi, mi.displayArea);
+			if (conflictedMarkerInfo != null) {
+				if (mi.getZIndex() > conflictedMarkerInfo.getZIndex()) {
+					markerInfoToRemove.add(conflictedMarkerInfo);
+				} else {
+					markerInfoToRemove.add(mi);
 				}
 			}
 		}
@@ -317,40 +702,86 @@ public class FloatingMarkerTitlesOverlay extends View {
 			}
 		}
 
-		for (final MarkerInfo mi : markerInfoToRemove) {
-			displayedMarkersList.remove(mi);
-			displayedMarkerIdToScreenRect.remove(mi);
-			displayedMarkerIdToAddedTime.remove(mi);
+		if (markerInfoToRemove.isEmpty()) {
+			return;
 		}
+		keptMarkersList.clear();
+		for (int i = 0; i < displayedMarkersList.size(); i++) {
+			final MarkerInfo mi = displayedMarkersList.get(i);
+			if (markerInfoToRemove.contains(mi)) {
+				displayedMarkerSlots.clear(mi.slot);
+			} else {
+				keptMarkersList.add(mi);
+			}
+		}
+		displayedMarkersList.clear();
+		displayedMarkersList.addAll(keptMarkersList);
+		markerInfoToRemove.clear();
 	}
 
 	/**
-	 * Determines the list of markers to add next. Since the number of markers we will check is limited by maxNewMarkersCheckPerFrame, the
-	 * list rotation is essential to ensure all the markers in the list are checked eventually (over several draw() calls).
+	 * Returns a displayed marker, other than _markerInfo and not already marked for removal, whose floating title intersects _displayArea.
+	 */
+	@Nullable
+	private MarkerInfo findConflictedDisplayedMarker(@NonNull final MarkerInfo _markerInfo, @NonNull final RectF _displayArea) {
+		final int maxColumn = displayedMarkersGrid.getMaxColumn(_displayArea);
+		final int maxRow = displayedMarkersGrid.getMaxRow(_displayArea);
+		for (int row = displayedMarkersGrid.getMinRow(_displayArea); row <= maxRow; row++) {
+			for (int column = displayedMarkersGrid.getMinColumn(_displayArea); column <= maxColumn; column++) {
+				final List<MarkerInfo> cell = displayedMarkersGrid.getCell(column, row);
+				for (int i = 0; i < cell.size(); i++) {
+					final MarkerInfo mi2 = cell.get(i);
+					if (mi2 == _markerInfo || markerInfoToRemove.contains(mi2)) {
+						continue;
+					}
+					stats.conflictChecks++;
+					if (RectF.intersects(_displayArea, mi2.displayArea)) {
+						return mi2;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Determines the list of markers to add next. Since the number of markers we will check is limited by maxNewMarkersCheckPerFrame, a
+	 * cursor walks markerInfoList as a ring from frame to frame to ensure all the markers in the list are checked eventually (over several
+	 * draw() calls). Hidden, already displayed, and off screen markers are skipped without counting as a check, so the markers in the
+	 * viewport get checked first, within a bounded number of scanned markers per frame.
 	 * <p>
 	 * The created list will attempt to respect maxFloatingTitlesCount. However if some markers have a higher z-index than _minZIndex, they
 	 * will still be added, which will make the limit go over for the current frame.
 	 * On the next frame however, lower z-indexes will be discared.
 	 */
-	@NonNull
-	private List<MarkerInfo> computeMarkersToAdd(@NonNull final GMFMTGeometryCache _geometryCache, final float _minZIndex) {
-		final ArrayList<MarkerInfo> markersToAdd = new ArrayList<>();
+	private void computeMarkersToAdd(@NonNull final GMFMTGeometryCache _geometryCache, final float _minZIndex) {
+		markersToAdd.clear();
 
 		// Adding the maximum number of markers to markersToAdd
-		final int numberOfMarkersToCheck = Math.min(markerInfoList.size(), maxNewMarkersCheckPerFrame);
-		for (int i = 0; i < numberOfMarkersToCheck; i++) {
-			// List rotation, we will take the first element of the list and put it to the end, numberOfMarkersToCheck times
-			final MarkerInfo mi = markerInfoList.remove(0);
-			markerInfoList.add(mi);
+		final int markerCount = markerInfoList.size();
+		final int maxScannedMarkers = Math.min(markerCount, maxNewMarkersCheckPerFrame * CANDIDATE_SCAN_FACTOR);
+		int scannedMarkers = 0;
+		int checkedMarkers = 0;
+		while (scannedMarkers < maxScannedMarkers && checkedMarkers < maxNewMarkersCheckPerFrame) {
+			if (candidateCursor >= markerCount) {
+				candidateCursor = 0;
+			}
+			final MarkerInfo mi = markerInfoList.get(candidateCursor++);
+			scannedMarkers++;
 
 			if (!mi.isVisible()) {
 				// If the marker is not visible, we don't add it
 				continue;
 			}
-			if (displayedMarkersList.contains(mi)) {
+			if (displayedMarkerSlots.get(mi.slot)) {
 				// If the marker is already in the displayed markers, we don't add it
 				continue;
 			}
+			if (!_geometryCache.isInVisibleRegion(mi)) {
+				// If the marker is off screen, we don't add it, and it doesn't count as a check
+				continue;
+			}
+			checkedMarkers++;
 
 			if (isMarkerTitleInConflictWithDisplay(_geometryCache, mi)) {
 				// If the marker is in conflict with display, we don't add it
@@ -359,13 +790,14 @@ public class FloatingMarkerTitlesOverlay extends View {
 
 			markersToAdd.add(mi);
 		}
+		remainingCandidateChecks -= scannedMarkers;
 
 		// While we're above display limit count, we remove markers without a stricly higher z-index than _minZIndex
 		final int remainingDisplaySlots = maxFloatingTitlesCount - displayedMarkersList.size();
 
 		for (int i = markersToAdd.size() - 1; i >= 0 && remainingDisplaySlots < markersToAdd.size(); i--) {
 			final MarkerInfo mi = markersToAdd.get(i);
-			if (!_geometryCache.isInScreenBounds(mi.getCoordinates())) {
+			if (!_geometryCache.isInScreenBounds(mi)) {
 				// If the marker is not visible, we remove it
 				markersToAdd.remove(i);
 			}
@@ -376,54 +808,57 @@ public class FloatingMarkerTitlesOverlay extends View {
 				markersToAdd.remove(i);
 			}
 		}
-
-		return markersToAdd;
 	}
 
 	private boolean isMarkerTitleInConflictWithDisplay(final GMFMTGeometryCache _geometryCache, final MarkerInfo _markerInfo) {
-		final RectF displayAreaRect = _geometryCache.computeDisplayAreaRect(_markerInfo);
-		for (final MarkerInfo mi2 : displayedMarkerIdToScreenRect.keySet()) {
-			final RectF rect = displayedMarkerIdToScreenRect.get(mi2);
-			if (RectF.intersects(rect, displayAreaRect)) {
-				// If _markerInfo is in conflict with another marker, we compare the z-index
-				if (_markerInfo.getZIndex() <= mi2.getZIndex()) {
-					// If _markerInfo has equal or lower Z-index, it's considered in conflict with display
-					return true;
+		// _markerInfo is not displayed, so its display area can be used to hold the candidate area
+		final RectF displayAreaRect = _markerInfo.displayArea;
+		_geometryCache.computeDisplayAreaRect(_markerInfo, displayAreaRect);
+		final int maxColumn = displayedMarkersGrid.getMaxColumn(displayAreaRect);
+		final int maxRow = displayedMarkersGrid.getMaxRow(displayAreaRect);
+		for (int row = displayedMarkersGrid.getMinRow(displayAreaRect); row <= maxRow; row++) {
+			for (int column = displayedMarkersGrid.getMinColumn(displayAreaRect); column <= maxColumn; column++) {
+				final List<MarkerInfo> cell = displayedMarkersGrid.getCell(column, row);
+				for (int i = 0; i < cell.size(); i++) {
+					final MarkerInfo mi2 = cell.get(i);
+					stats.conflictChecks++;
+					if (RectF.intersects(mi2.displayArea, displayAreaRect)) {
+						// If _markerInfo is in conflict with another marker, we compare the z-index
+						if (_markerInfo.getZIndex() <= mi2.getZIndex()) {
+							// If _markerInfo has equal or lower Z-index, it's considered in conflict with display
+							return true;
+						}
+						// If _markerInfo has higher Z-index, it's considered prioritary compared to the other marker
+					}
 				}
-				// If _markerInfo has higher Z-index, it's considered prioritary compared to the other marker
 			}
 		}
 		return false;
 	}
 
-	private void drawMarkerFloatingTitle(final @NonNull Canvas _canvas, @Nullable final MarkerInfo _markerInfo) {
+	/**
+	 * @return true if the title is still fading in
+	 */
+	private boolean drawMarkerFloatingTitle(final @NonNull Canvas _canvas, @Nullable final MarkerInfo _markerInfo) {
 		if (_markerInfo == null) {
-			return;
-		}
-		final RectF displayArea = displayedMarkerIdToScreenRect.get(_markerInfo);
-		if (displayArea == null) {
-			return;
+			return false;
 		}
-		final Long addedTime = displayedMarkerIdToAddedTime.get(_markerInfo);
-		final int alpha = computeMarkerFloatingTitleAlpha(addedTime);
-		drawMarkerFloatingTitleOnCanvas(_canvas, _markerInfo, displayArea, alpha);
+		final int alpha = computeMarkerFloatingTitleAlpha(_markerInfo.displayedSince);
+		drawMarkerFloatingTitleOnCanvas(_canvas, _markerInfo, _markerInfo.displayArea, alpha);
+		return alpha < 255;
 	}
 
-	private int computeMarkerFloatingTitleAlpha(@Nullable final Long _addedTime) {
+	private int computeMarkerFloatingTitleAlpha(final long _addedTime) {
 		final int alpha;
-		if (_addedTime == null) {
+		long currentTimeMillis = System.currentTimeMillis();
+		if (currentTimeMillis < _addedTime) {
 			alpha = 255;
 		} else {
-			long currentTimeMillis = System.currentTimeMillis();
-			if (currentTimeMillis < _addedTime) {
+			final long elapsedTime = currentTimeMillis - _addedTime;
+			if (elapsedTime > FADE_ANIMATION_TIME) {
 				alpha = 255;
 			} else {
-				final long elapsedTime = currentTimeMillis - _addedTime;
-				if (elapsedTime > FADE_ANIMATION_TIME) {
-					alpha = 255;
-				} else {
-					alpha = (int) ((float) elapsedTime / (float) FADE_ANIMATION_TIME * 255F);
-				}
+				alpha = (int) ((float) elapsedTime / (float) FADE_ANIMATION_TIME * 255F);
 			}
 		}
 		return alpha;
@@ -432,38 +867,21 @@ public class FloatingMarkerTitlesOverlay extends View {
 	private void drawMarkerFloatingTitleOnCanvas(final @NonNull Canvas _canvas, @NonNull final MarkerInfo _markerInfo,
 		@NonNull final RectF _displayArea, final int _alpha) {
 		final int markerColor = _markerInfo.getColor();
-		final String markerTitle = _markerInfo.getTitle();
 		final TextPaint usedTextPaint = _markerInfo.isBoldText() ? boldTextPaint : regularTextPaint;
-		usedTextPaint.setStyle(Paint.Style.STROKE);
-		if (GMFMTUtils.isDarkColor(markerColor)) {
-			usedTextPaint.setColor(Color.WHITE);
-			usedTextPaint.setAlpha((int) (_alpha / 1.2F));
-		} else {
-			usedTextPaint.setColor(Color.BLACK);
-			usedTextPaint.setAlpha((int) (_alpha / 2F));
+		final GMFMTTextLayout textLayout = GMFMTTextLayout.of(_markerInfo, usedTextPaint, maxTextWidth, maxTextHeight, stats);
+		final StaticLayout drawingLayout = textLayout.getDrawingLayout();
+		if (drawingLayout == null) {
+			return;
 		}
-		final String truncatedText = GMFMTUtils.getTruncatedText(usedTextPaint, maxTextWidth, _displayArea.height(), markerTitle);
-		if (truncatedText == null) {
+		stats.titlesDrawn++;
+		final int padding = (int) Math.ceil(usedTextPaint.getStrokeWidth());
+		final Bitmap bitmap = titleBitmapCache.get(textLayout, drawingLayout, usedTextPaint, markerColor, padding);
+		if (bitmap == null) {
+			// Not cached (too big for the memory budget), draw the text directly
+			GMFMTUtils.drawMarkerTitle(_canvas, drawingLayout, usedTextPaint, markerColor, _alpha, _displayArea.left, _displayArea.top);
 			return;
 		}
-		GMFMTUtils.drawMultiLineText(//
-			_canvas,//
-			usedTextPaint,//
-			_displayArea.left,//
-			_displayArea.top,//
-			(float) Math.ceil(_displayArea.width()),//
-			truncatedText//
-		);
-		usedTextPaint.setStyle(Paint.Style.FILL);
-		usedTextPaint.setColor(markerColor);
-		usedTextPaint.setAlpha(_alpha);
-		GMFMTUtils.drawMultiLineText(//
-			_canvas,//
-			usedTextPaint,//
-			_displayArea.left,//
-			_displayArea.top,//
-			(float) Math.ceil(_displayArea.width()),//
-			truncatedText//
-		);
+		titleBitmapPaint.setAlpha(_alpha);
+		_canvas.drawBitmap(bitmap, _displayArea.left - padding, _displayArea.top - padding, titleBitmapPaint);
 	}
 }
@@ -0,0 +1,154 @@
+package com.exlyo.gmfmt;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+
+/**
+ * Work done by a FloatingMarkerTitlesOverlay during its last drawn frame, see FloatingMarkerTitlesOverlay.getStats().
+ * <p>
+ * The values are counted by the drawing thread while it draws a frame and published when the frame is done, so they can be polled from
+ * any thread. Values of a same frame are not read atomically, which is fine for monitoring.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class FloatingMarkerTitlesStats {
+	/* Counters of the frame being drawn, only accessed by the drawing thread */
+	int conflictChecks;
+	int projections;
+	int batchProjections;
+	int geometryCacheHits;
+	int layoutsBuilt;
+	int bitmapsRendered;
+	int titlesDrawn;
+
+	/* Values of the last drawn frame */
+	private volatile long frameCount;
+	private volatile long frameDurationNanos;
+	private volatile long updateDurationNanos;
+	private volatile int lastConflictChecks;
+	private volatile int lastProjections;
+	private volatile int lastBatchProjections;
+	private volatile int lastGeometryCacheHits;
+	private volatile int lastLayoutsBuilt;
+	private volatile int lastBitmapsRendered;
+	private volatile int lastTitlesDrawn;
+	private volatile int trackedMarkerCount;
+	private volatile long titleBitmapCacheSizeBytes;
+
+	FloatingMarkerTitlesStats() {
+	}
+
+	void startFrame() {
+		conflictChecks = 0;
+		projections = 0;
+		batchProjections = 0;
+		geometryCacheHits = 0;
+		layoutsBuilt = 0;
+		bitmapsRendered = 0;
+		titlesDrawn = 0;
+	}
+
+	void publishFrame(final long _frameDurationNanos, final long _updateDurationNanos, final int _trackedMarkerCount,
+		final long _titleBitmapCacheSizeBytes) {
+		frameDurationNanos = _frameDurationNanos;
+		updateDurationNanos = _updateDurationNanos;
+		lastConflictChecks = conflictChecks;
+		lastProjections = projections;
+		lastBatchProjections = batchProjections;
+		lastGeometryCacheHits = geometryCacheHits;
+		lastLayoutsBuilt = layoutsBuilt;
+		lastBitmapsRendered = bitmapsRendered;
+		lastTitlesDrawn = titlesDrawn;
+		trackedMarkerCount = _trackedMarkerCount;
+		titleBitmapCacheSizeBytes = _titleBitmapCacheSizeBytes;
+		frameCount++;
+	}
+
+	/**
+	 * Number of frames drawn with floating titles since the overlay was created
+	 */
+	public long getFrameCount() {
+		return frameCount;
+	}
+
+	/**
+	 * Time spent drawing the floating titles, in nanoseconds
+	 */
+	public long getFrameDurationNanos() {
+		return frameDurationNanos;
+	}
+
+	/**
+	 * Time spent deciding which floating titles to display (updateCurrentlyDisplayedMarkers), in nanoseconds
+	 */
+	public long getUpdateDurationNanos() {
+		return updateDurationNanos;
+	}
+
+	/**
+	 * Number of title rectangles intersection tests
+	 */
+	public int getConflictChecks() {
+		return lastConflictChecks;
+	}
+
+	/**
+	 * Number of screen locations computed through the Maps projection
+	 */
+	public int getProjections() {
+		return lastProjections;
+	}
+
+	/**
+	 * Number of screen locations recomputed by the batch Web Mercator projection after a zoom or bearing change
+	 */
+	public int getBatchProjections() {
+		return lastBatchProjections;
+	}
+
+	/**
+	 * Number of screen locations read from the geometry cache without any projection
+	 */
+	public int getGeometryCacheHits() {
+		return lastGeometryCacheHits;
+	}
+
+	/**
+	 * Number of title text layouts (re)built
+	 */
+	public int getLayoutsBuilt() {
+		return lastLayoutsBuilt;
+	}
+
+	/**
+	 * Number of titles rendered into the bitmap cache
+	 */
+	public int getBitmapsRendered() {
+		return lastBitmapsRendered;
+	}
+
+	public int getTitlesDrawn() {
+		return lastTitlesDrawn;
+	}
+
+	public int getTrackedMarkerCount() {
+		return trackedMarkerCount;
+	}
+
+	public long getTitleBitmapCacheSizeBytes() {
+		return titleBitmapCacheSizeBytes;
+	}
+
+	@NonNull
+	@Override
+	public String toString() {
+		return String.format(Locale.US,//
+			"frame %.2fms (update %.2fms), %d markers, %d titles drawn\n"//
+				+ "%d conflict checks, %d projections, %d batch projections, %d cache hits\n"//
+				+ "%d layouts built, %d bitmaps rendered, bitmap cache %dKB",//
+			frameDurationNanos / 1e6, updateDurationNanos / 1e6, trackedMarkerCount, lastTitlesDrawn,//
+			lastConflictChecks, lastProjections, lastBatchProjections, lastGeometryCacheHits,//
+			lastLayoutsBuilt, lastBitmapsRendered, titleBitmapCacheSizeBytes / 1024//
+		);
+	}
+}
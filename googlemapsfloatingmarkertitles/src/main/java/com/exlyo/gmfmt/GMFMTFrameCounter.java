@@ -0,0 +1,42 @@
+package com.exlyo.gmfmt;
+
+import android.os.SystemClock;
+
+/**
+ * Counts the frames drawn over the last minute, using one bucket per second so that recording a frame never allocates.
+ */
+class GMFMTFrameCounter {
+	private static final int BUCKET_COUNT = 60;
+	private static final long BUCKET_DURATION_MS = 1000;
+
+	private final int[] bucketFrameCount = new int[BUCKET_COUNT];
+	private final long[] bucketSecond = new long[BUCKET_COUNT];
+
+	private long totalFrameCount;
+
+	synchronized void recordFrame() {
+		final long second = SystemClock.uptimeMillis() / BUCKET_DURATION_MS;
+		final int index = (int) (second % BUCKET_COUNT);
+		if (bucketSecond[index] != second) {
+			bucketSecond[index] = second;
+			bucketFrameCount[index] = 0;
+		}
+		bucketFrameCount[index]++;
+		totalFrameCount++;
+	}
+
+	synchronized int getFramesDrawnLastMinute() {
+		final long second = SystemClock.uptimeMillis() / BUCKET_DURATION_MS;
+		int res = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			if (second - bucketSecond[i] < BUCKET_COUNT) {
+				res += bucketFrameCount[i];
+			}
+		}
+		return res;
+	}
+
+	synchronized long getTotalFrameCount() {
+		return totalFrameCount;
+	}
+}
@@ -9,58 +9,102 @@ import android.text.TextPaint;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.CameraPosition;
 import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.Arrays;
 
+/**
+ * Screen locations of the tracked markers, stored in primitive arrays indexed by the marker slot (see MarkerInfo.slot) so that a frame
+ * doesn't need to hash coordinates or allocate points and rectangles. The camera and the projection are read through a GMFMTProjection.
+ */
 class GMFMTGeometryCache {
+	private static final int INITIAL_CAPACITY = 64;
+
 	@NonNull
 	private final FloatingMarkerTitlesOverlay fmto;
 	@NonNull
 	private final Rect viewBounds;
 	@NonNull
-	private final GoogleMap googleMap;
+	private final Rect clipBounds = new Rect();
+	@NonNull
+	private final GMFMTProjection projection;
+
+	/* Cache entries, indexed by marker slot. An entry is valid if its generation is the current cacheGeneration */
+	@NonNull
+	private LatLng[] cachedCoordinates = new LatLng[INITIAL_CAPACITY];
+	@NonNull
+	private int[] screenX = new int[INITIAL_CAPACITY];
+	@NonNull
+	private int[] screenY = new int[INITIAL_CAPACITY];
 	@NonNull
-	private final Map<LatLng, Point> cacheMap = new HashMap<>();
+	private int[] entryGenerations = new int[INITIAL_CAPACITY];
+	private int cacheGeneration = 1;
+
+	/* Normalized Web Mercator coordinates of cachedCoordinates, used to reproject every entry at once on zoom/bearing changes */
+	@NonNull
+	private double[] worldX = new double[INITIAL_CAPACITY];
+	@NonNull
+	private double[] worldY = new double[INITIAL_CAPACITY];
+
+	/* Slot of the last located marker, used as sample to compute the translation of a camera pan */
+	private int sampleSlot = -1;
 
 	@Nullable
 	private CameraPosition lastFrameCameraPosition = null;
 
-	GMFMTGeometryCache(@NonNull final FloatingMarkerTitlesOverlay _fmto, @NonNull final GoogleMap _googleMap) {
+	/* Bounding box of the visible region, refreshed when the camera moves */
+	@Nullable
+	private LatLngBounds visibleBounds = null;
+
+	GMFMTGeometryCache(@NonNull final FloatingMarkerTitlesOverlay _fmto, @NonNull final GMFMTProjection _projection) {
 		fmto = _fmto;
 		viewBounds = new Rect(0, 0, 1, 1);
-		googleMap = _googleMap;
+		projection = _projection;
 	}
 
 	/**
 	 * Called by the parent FloatingMarkerTitlesOverlay before drawing every frame. Updates information important for the cache and gets
 	 * to a ready state to draw the next frame.
+	 *
+	 * @return true if the camera or the view size changed since the previous frame
 	 */
-	public void prepareForNewFrame(@NonNull final Canvas _canvas) {
-		viewBounds.right = GMFMTUtils.getCanvasWidth(_canvas);
-		viewBounds.bottom = GMFMTUtils.getCanvasHeight(_canvas);
-		final CameraPosition cameraPosition = googleMap.getCameraPosition();
-		if (lastFrameCameraPosition != null) {
+	public boolean prepareForNewFrame(@NonNull final Canvas _canvas) {
+		_canvas.getClipBounds(clipBounds);
+		final int width = Math.abs(clipBounds.right - clipBounds.left);
+		final int height = Math.abs(clipBounds.bottom - clipBounds.top);
+		final boolean viewResized = viewBounds.right != width || viewBounds.bottom != height;
+		viewBounds.right = width;
+		viewBounds.bottom = height;
+		final CameraPosition cameraPosition = projection.getCameraPosition();
+		final boolean cameraMoved = lastFrameCameraPosition == null || !lastFrameCameraPosition.equals(cameraPosition);
+		if (viewResized) {
+			invalidateAll();
+		} else if (lastFrameCameraPosition != null) {
 			smartCacheUpdate(lastFrameCameraPosition, cameraPosition);
 		}
 		lastFrameCameraPosition = cameraPosition;
+		if (cameraMoved || viewResized) {
+			visibleBounds = projection.getVisibleBounds();
+		}
+		return cameraMoved || viewResized;
 	}
 
 	/**
-	 * Updates the cache content for cacheMap in a smart way: normally, each floating marker title's location on screen needs to be
-	 * calculated using the following code: <code>googleMap.getProjection().toScreenLocation(_latLng)</code>
+	 * Updates the cache content in a smart way: normally, each floating marker title's location on screen needs to be calculated using
+	 * the following code: <code>projection.toScreenLocation(_latLng)</code>
 	 * <p>
 	 * In the case the map's zoom level or bearing hasn't changed any marker's screen location will receive the same update/translation. The
 	 * translation is applicable to any marker already cached, so in this case we will only compute the updated screen location for one
 	 * marker, calculate the deltaX and deltaY, and apply that change to all cached screen locations.
+	 * <p>
+	 * If the zoom or the bearing changed, all the cached screen locations are recomputed at once with reprojectAll(). Only a tilted camera
+	 * requires to go through the Maps projection for each marker.
 	 */
 	private void smartCacheUpdate(@NonNull final CameraPosition _previousCameraPosition, @NonNull final CameraPosition _cameraPosition) {
-		if (cacheMap.isEmpty()) {
-			// If the cache map is empty, there is nothing smart to do about it anyways
+		if (sampleSlot < 0 || entryGenerations[sampleSlot] != cacheGeneration) {
+			// If there is no valid cache entry to use as sample, there is nothing smart to do about it anyways
 			return;
 		}
 
@@ -69,58 +113,165 @@ class GMFMTGeometryCache {
 			return;
 		}
 
-		// Check for cases where we cannot use a smart update
-		if (_cameraPosition.tilt != 0 // The tilt of the camera is not 0 (aka perspective aka multiplier applied to coordinates)
+		if (_cameraPosition.tilt != 0) {
+			// The tilt of the camera is not 0 (aka perspective), we cannot compute the locations ourselves
+			invalidateAll();
+			return;
+		}
+
+		if (_previousCameraPosition.tilt != 0 // The cached locations were computed with a perspective
 			|| _previousCameraPosition.zoom != _cameraPosition.zoom // The zoom changed (aka multiplier applied to coordinates)
 			|| _previousCameraPosition.bearing != _cameraPosition.bearing // The bearing changed (aka rotation applied to coordinates)
 			) {
-			// If anything else than the target of the camera position has changed, we cannot use a smart update
-			cacheMap.clear();
+			// If anything else than the target of the camera position has changed, a translation is not enough
+			reprojectAll(_cameraPosition);
 			return;
 		}
 
-		final Iterator<LatLng> iterator = cacheMap.keySet().iterator();
-		final LatLng latLngSample = iterator.next();
-		final Point pointSample = cacheMap.get(latLngSample);
-		final Point updatedPointSample = googleMap.getProjection().toScreenLocation(latLngSample);
-		final int deltaX = updatedPointSample.x - pointSample.x;
-		final int deltaY = updatedPointSample.y - pointSample.y;
-		for (final Point p : cacheMap.values()) {
-			p.x += deltaX;
-			p.y += deltaY;
+		final Point updatedPointSample = projection.toScreenLocation(cachedCoordinates[sampleSlot]);
+		fmto.stats.projections++;
+		final int deltaX = updatedPointSample.x - screenX[sampleSlot];
+		final int deltaY = updatedPointSample.y - screenY[sampleSlot];
+		final int generation = cacheGeneration;
+		final int[] generations = entryGenerations;
+		final int[] xs = screenX;
+		final int[] ys = screenY;
+		for (int slot = 0; slot < generations.length; slot++) {
+			if (generations[slot] == generation) {
+				xs[slot] += deltaX;
+				ys[slot] += deltaY;
+			}
 		}
 	}
 
-	@NonNull
-	public Point getScreenLocation(@NonNull final LatLng _latLng) {
-		final Point cacheRes = cacheMap.get(_latLng);
-		if (cacheRes != null) {
-			return cacheRes;
+	/**
+	 * Recomputes the screen location of every valid cache entry from its Web Mercator coordinates, handling the zoom and the bearing
+	 * analytically. The camera target is projected through the Maps projection to anchor the result, which accounts for the map padding.
+	 */
+	private void reprojectAll(@NonNull final CameraPosition _cameraPosition) {
+		final Point anchor = projection.toScreenLocation(_cameraPosition.target);
+		fmto.stats.projections++;
+		final double anchorX = anchor.x;
+		final double anchorY = anchor.y;
+		final double targetX = GMFMTWebMercator.worldX(_cameraPosition.target.longitude);
+		final double targetY = GMFMTWebMercator.worldY(_cameraPosition.target.latitude);
+		final double scale = GMFMTWebMercator.worldSizePx(_cameraPosition.zoom, fmto.getResources().getDisplayMetrics().density);
+		final double bearing = Math.toRadians(_cameraPosition.bearing);
+		final double cos = Math.cos(bearing) * scale;
+		final double sin = Math.sin(bearing) * scale;
+
+		final int generation = cacheGeneration;
+		final int[] generations = entryGenerations;
+		final double[] wxs = worldX;
+		final double[] wys = worldY;
+		final int[] xs = screenX;
+		final int[] ys = screenY;
+		int batchProjections = 0;
+		for (int slot = 0; slot < generations.length; slot++) {
+			if (generations[slot] != generation) {
+				continue;
+			}
+			double dx = wxs[slot] - targetX;
+			// Take the closest copy of the world horizontally
+			dx -= Math.rint(dx);
+			final double dy = wys[slot] - targetY;
+			xs[slot] = (int) Math.round(anchorX + dx * cos + dy * sin);
+			ys[slot] = (int) Math.round(anchorY - dx * sin + dy * cos);
+			batchProjections++;
 		}
-		final Point res = googleMap.getProjection().toScreenLocation(_latLng);
-		cacheMap.put(_latLng, res);
-		return res;
+		fmto.stats.batchProjections += batchProjections;
 	}
 
-	@NonNull
-	public RectF computeDisplayAreaRect(@NonNull final MarkerInfo _markerInfo) {
-		final Point screenLocation = getScreenLocation(_markerInfo.getCoordinates());
+	private void invalidateAll() {
+		cacheGeneration++;
+		sampleSlot = -1;
+	}
+
+	private void ensureCapacity(final int _capacity) {
+		if (_capacity <= entryGenerations.length) {
+			return;
+		}
+		final int newCapacity = Math.max(_capacity, entryGenerations.length * 2);
+		cachedCoordinates = Arrays.copyOf(cachedCoordinates, newCapacity);
+		screenX = Arrays.copyOf(screenX, newCapacity);
+		screenY = Arrays.copyOf(screenY, newCapacity);
+		entryGenerations = Arrays.copyOf(entryGenerations, newCapacity);
+		worldX = Arrays.copyOf(worldX, newCapacity);
+		worldY = Arrays.copyOf(worldY, newCapacity);
+	}
+
+	/**
+	 * Makes sure the screen location of _markerInfo is cached and up to date with its coordinates.
+	 *
+	 * @return the slot to read the screen location from with getScreenX() and getScreenY()
+	 */
+	public int locate(@NonNull final MarkerInfo _markerInfo) {
+		final int slot = _markerInfo.slot;
+		if (slot < 0) {
+			throw new IllegalStateException("MarkerInfo is not tracked by the overlay");
+		}
+		ensureCapacity(slot + 1);
+		final LatLng coordinates = _markerInfo.getCoordinates();
+		if (entryGenerations[slot] != cacheGeneration || !coordinates.equals(cachedCoordinates[slot])) {
+			final Point res = projection.toScreenLocation(coordinates);
+			fmto.stats.projections++;
+			if (!coordinates.equals(cachedCoordinates[slot])) {
+				worldX[slot] = GMFMTWebMercator.worldX(coordinates.longitude);
+				worldY[slot] = GMFMTWebMercator.worldY(coordinates.latitude);
+			}
+			cachedCoordinates[slot] = coordinates;
+			screenX[slot] = res.x;
+			screenY[slot] = res.y;
+			entryGenerations[slot] = cacheGeneration;
+		} else {
+			fmto.stats.geometryCacheHits++;
+		}
+		sampleSlot = slot;
+		return slot;
+	}
+
+	public int getScreenX(final int _slot) {
+		return screenX[_slot];
+	}
+
+	public int getScreenY(final int _slot) {
+		return screenY[_slot];
+	}
+
+	/**
+	 * Computes the area the floating title of _markerInfo takes on the screen into _res.
+	 */
+	public void computeDisplayAreaRect(@NonNull final MarkerInfo _markerInfo, @NonNull final RectF _res) {
+		final int slot = locate(_markerInfo);
 		final TextPaint usedTextPaint = _markerInfo.isBoldText() ? fmto.boldTextPaint : fmto.regularTextPaint;
-		final Point textSize = GMFMTUtils.measureMultiLineEllipsizedText(//
-			usedTextPaint,//
-			(int) fmto.maxTextWidth,//
-			(int) fmto.maxTextHeight,//
-			_markerInfo.getTitle()//
-		);
-		final float left = screenLocation.x + fmto.textPaddingToMarker;
-		final int top = screenLocation.y - textSize.y / 2;
-		final float right = screenLocation.x + textSize.x + fmto.textPaddingToMarker;
-		final int bottom = screenLocation.y + textSize.y / 2;
-		return new RectF(left, top, right, bottom);
+		final GMFMTTextLayout textLayout =
+			GMFMTTextLayout.of(_markerInfo, usedTextPaint, fmto.maxTextWidth, fmto.maxTextHeight, fmto.stats);
+		final float left = screenX[slot] + fmto.textPaddingToMarker;
+		final int top = screenY[slot] - textLayout.getHeight() / 2;
+		final float right = screenX[slot] + textLayout.getWidth() + fmto.textPaddingToMarker;
+		final int bottom = screenY[slot] + textLayout.getHeight() / 2;
+		_res.set(left, top, right, bottom);
+	}
+
+	public int getViewWidth() {
+		return viewBounds.width();
+	}
+
+	public int getViewHeight() {
+		return viewBounds.height();
+	}
+
+	/**
+	 * Cheap check, without projection, of whether the marker is inside the bounding box of the visible region. A marker outside of it
+	 * is off screen, a marker inside of it may still be off screen when the camera is rotated or tilted.
+	 */
+	public boolean isInVisibleRegion(@NonNull final MarkerInfo _markerInfo) {
+		final LatLngBounds bounds = visibleBounds;
+		return bounds == null || bounds.contains(_markerInfo.getCoordinates());
 	}
 
-	public boolean isInScreenBounds(@NonNull final LatLng _coordinates) {
-		final Point point = getScreenLocation(_coordinates);
-		return viewBounds.contains(point.x, point.y);
+	public boolean isInScreenBounds(@NonNull final MarkerInfo _markerInfo) {
+		final int slot = locate(_markerInfo);
+		return viewBounds.contains(screenX[slot], screenY[slot]);
 	}
 }
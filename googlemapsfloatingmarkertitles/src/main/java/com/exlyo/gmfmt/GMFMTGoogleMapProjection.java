@@ -0,0 +1,40 @@
+package com.exlyo.gmfmt;
+
+import android.graphics.Point;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.CameraPosition;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+
+/**
+ * GMFMTProjection of a GoogleMap. Each call goes through the Maps SDK, which allocates its own objects.
+ */
+class GMFMTGoogleMapProjection implements GMFMTProjection {
+	@NonNull
+	private final GoogleMap googleMap;
+
+	GMFMTGoogleMapProjection(@NonNull final GoogleMap _googleMap) {
+		googleMap = _googleMap;
+	}
+
+	@NonNull
+	@Override
+	public CameraPosition getCameraPosition() {
+		return googleMap.getCameraPosition();
+	}
+
+	@NonNull
+	@Override
+	public Point toScreenLocation(@NonNull final LatLng _latLng) {
+		return googleMap.getProjection().toScreenLocation(_latLng);
+	}
+
+	@NonNull
+	@Override
+	public LatLngBounds getVisibleBounds() {
+		return googleMap.getProjection().getVisibleRegion().latLngBounds;
+	}
+}
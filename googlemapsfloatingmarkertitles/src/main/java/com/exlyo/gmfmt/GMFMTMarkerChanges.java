@@ -0,0 +1,106 @@
+package com.exlyo.gmfmt;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Marker changes requested since the last applied batch, coalesced as they are recorded so that their size is bounded by the number of
+ * distinct marker IDs changed, not by the number of calls, even while the overlay isn't drawn:
+ * <ul>
+ * <li>setMarkers() and clearMarkers() discard everything recorded before them, the last one wins</li>
+ * <li>the changes of a same ID are merged into a single one, an ID added then removed is only removed (a no-op if it wasn't tracked)</li>
+ * </ul>
+ * Not thread-safe: the overlay records into one instance under its lock and swaps it with an empty one to apply it.
+ */
+class GMFMTMarkerChanges {
+	/**
+	 * Coalesced change of a single marker ID, applied in this order: added, then updated, or removed alone.
+	 */
+	static final class Change {
+		/* MarkerInfo to track under the ID, replacing the tracked one */
+		@Nullable
+		MarkerInfo added;
+		/* Values to copy into the MarkerInfo tracked under the ID, which is added if the ID isn't tracked */
+		@Nullable
+		MarkerInfo updated;
+		/* The ID stops being tracked, never set along with added or updated */
+		boolean removed;
+	}
+
+	/* Untrack all the markers before anything else */
+	boolean clearAll;
+
+	/* Markers to track instead of the tracked ones, applied after clearAll */
+	@Nullable
+	Map<Long, MarkerInfo> setMarkers;
+
+	/* Changes by ID, applied after setMarkers in the order the IDs were first changed */
+	@NonNull
+	final LinkedHashMap<Long, Change> changes = new LinkedHashMap<>();
+
+	boolean resetDisplay;
+
+	boolean markersChanged;
+
+	void add(final long _id, @NonNull final MarkerInfo _markerInfo) {
+		final Change change = change(_id);
+		change.added = _markerInfo;
+		change.updated = null;
+		change.removed = false;
+	}
+
+	void update(final long _id, @NonNull final MarkerInfo _markerInfo) {
+		final Change change = change(_id);
+		if (change.removed) {
+			// Updating an ID that isn't tracked adds it
+			change.added = _markerInfo;
+			change.removed = false;
+		} else {
+			change.updated = _markerInfo;
+		}
+	}
+
+	void remove(final long _id) {
+		final Change change = change(_id);
+		change.added = null;
+		change.updated = null;
+		change.removed = true;
+	}
+
+	void set(@NonNull final Map<Long, MarkerInfo> _markers) {
+		clearAll = false;
+		setMarkers = _markers;
+		changes.clear();
+	}
+
+	void clearAll() {
+		clearAll = true;
+		setMarkers = null;
+		changes.clear();
+	}
+
+	boolean isEmpty() {
+		return !clearAll && setMarkers == null && changes.isEmpty() && !resetDisplay && !markersChanged;
+	}
+
+	void reset() {
+		clearAll = false;
+		setMarkers = null;
+		changes.clear();
+		resetDisplay = false;
+		markersChanged = false;
+	}
+
+	@NonNull
+	private Change change(final long _id) {
+		Change res = changes.get(_id);
+		if (res == null) {
+			res = new Change();
+			changes.put(_id, res);
+		}
+		return res;
+	}
+}
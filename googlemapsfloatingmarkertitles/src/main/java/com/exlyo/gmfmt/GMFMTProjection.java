@@ -0,0 +1,30 @@
+package com.exlyo.gmfmt;
+
+import android.graphics.Point;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.maps.model.CameraPosition;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+
+/**
+ * Camera and projection of the map the overlay is drawn on top of, as read by GMFMTGeometryCache. The overlay reads them from its
+ * GoogleMap (see GMFMTGoogleMapProjection), the tests provide their own since they can't get a live map.
+ */
+interface GMFMTProjection {
+	@NonNull
+	CameraPosition getCameraPosition();
+
+	/**
+	 * @return the screen location of _latLng with the current camera position
+	 */
+	@NonNull
+	Point toScreenLocation(@NonNull LatLng _latLng);
+
+	/**
+	 * @return the bounding box of the region visible with the current camera position
+	 */
+	@NonNull
+	LatLngBounds getVisibleBounds();
+}
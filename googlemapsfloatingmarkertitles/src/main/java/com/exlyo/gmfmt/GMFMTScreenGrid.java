@@ -0,0 +1,89 @@
+package com.exlyo.gmfmt;
+
+import android.graphics.RectF;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uniform screen-space grid of the displayed floating title rectangles, used to find the titles a rectangle may be in conflict with
+ * without comparing it against every displayed title.
+ * <p>
+ * A rectangle is registered in every cell it covers. Cell indices are clamped to the grid, so rectangles partially outside of the view
+ * bounds still land in the border cells and intersections are never missed. The buckets are reused between frames.
+ */
+class GMFMTScreenGrid {
+	@NonNull
+	private final List<List<MarkerInfo>> buckets = new ArrayList<>();
+
+	private int columnCount;
+	private int rowCount;
+	private float cellSize = 1;
+
+	/**
+	 * Rebuilds the grid for the given displayed titles. _cellSize should be close to the biggest title width so that a title covers at
+	 * most a couple of cells.
+	 */
+	void rebuild(@NonNull final List<MarkerInfo> _markerInfoList, final int _viewWidth, final int _viewHeight, final float _cellSize) {
+		cellSize = Math.max(1, _cellSize);
+		columnCount = Math.max(1, (int) Math.ceil(_viewWidth / cellSize));
+		rowCount = Math.max(1, (int) Math.ceil(_viewHeight / cellSize));
+		final int cellCount = columnCount * rowCount;
+		while (buckets.size() < cellCount) {
+			buckets.add(new ArrayList<MarkerInfo>());
+		}
+		for (int i = 0; i < cellCount; i++) {
+			buckets.get(i).clear();
+		}
+		for (int i = 0; i < _markerInfoList.size(); i++) {
+			final MarkerInfo mi = _markerInfoList.get(i);
+			add(mi, mi.displayArea);
+		}
+	}
+
+	private void add(@NonNull final MarkerInfo _markerInfo, @NonNull final RectF _rect) {
+		final int minColumn = column(_rect.left);
+		final int maxColumn = column(_rect.right);
+		final int minRow = row(_rect.top);
+		final int maxRow = row(_rect.bottom);
+		for (int r = minRow; r <= maxRow; r++) {
+			for (int c = minColumn; c <= maxColumn; c++) {
+				buckets.get(r * columnCount + c).add(_markerInfo);
+			}
+		}
+	}
+
+	int getMinColumn(@NonNull final RectF _rect) {
+		return column(_rect.left);
+	}
+
+	int getMaxColumn(@NonNull final RectF _rect) {
+		return column(_rect.right);
+	}
+
+	int getMinRow(@NonNull final RectF _rect) {
+		return row(_rect.top);
+	}
+
+	int getMaxRow(@NonNull final RectF _rect) {
+		return row(_rect.bottom);
+	}
+
+	/**
+	 * Titles registered in a cell. A title covering several cells is returned for each of them.
+	 */
+	@NonNull
+	List<MarkerInfo> getCell(final int _column, final int _row) {
+		return buckets.get(_row * columnCount + _column);
+	}
+
+	private int column(final float _x) {
+		return Math.max(0, Math.min(columnCount - 1, (int) Math.floor(_x / cellSize)));
+	}
+
+	private int row(final float _y) {
+		return Math.max(0, Math.min(rowCount - 1, (int) Math.floor(_y / cellSize)));
+	}
+}
@@ -0,0 +1,39 @@
+package com.exlyo.gmfmt;
+
+import java.util.Arrays;
+
+/**
+ * Hands out small, dense integer slots to the tracked markers so that per-marker data can live in primitive arrays. Released slots are
+ * reused before new ones are created.
+ */
+class GMFMTSlotAllocator {
+	private int[] freeSlots = new int[16];
+	private int freeSlotCount;
+	private int slotCount;
+
+	int acquire() {
+		if (freeSlotCount > 0) {
+			return freeSlots[--freeSlotCount];
+		}
+		return slotCount++;
+	}
+
+	void release(final int _slot) {
+		if (freeSlotCount == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+		}
+		freeSlots[freeSlotCount++] = _slot;
+	}
+
+	void reset() {
+		freeSlotCount = 0;
+		slotCount = 0;
+	}
+
+	/**
+	 * @return the number of slots ever handed out since the last reset, i.e. the size arrays indexed by slot need
+	 */
+	int getSlotCount() {
+		return slotCount;
+	}
+}
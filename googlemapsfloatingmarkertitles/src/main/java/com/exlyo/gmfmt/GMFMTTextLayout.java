@@ -0,0 +1,103 @@
+package com.exlyo.gmfmt;
+
+import android.graphics.Point;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Measured size, truncated text and drawing layout of a marker's floating title. Each MarkerInfo keeps its own instance, which is only
+ * rebuilt when the title, the paint, the text size or the maximum text size change, so steady frames don't build any StaticLayout.
+ * <p>
+ * The drawing layout keeps a reference to the paint it was built with. Changing the paint style or color before drawing it is fine,
+ * changing its text size is not (the text size is part of the key).
+ */
+class GMFMTTextLayout {
+	/* Key */
+	@Nullable
+	private String title;
+	@Nullable
+	private TextPaint textPaint;
+	private float textSize;
+	private float maxWidth;
+	private float maxHeight;
+
+	/* Cached values, version is incremented every time they are rebuilt */
+	private int version;
+	private int width;
+	private int height;
+	@Nullable
+	private StaticLayout drawingLayout;
+
+	/**
+	 * Returns the up to date text layout of _markerInfo, reusing the cached one when its key didn't change.
+	 */
+	@NonNull
+	static GMFMTTextLayout of(@NonNull final MarkerInfo _markerInfo, @NonNull final TextPaint _textPaint, final float _maxWidth,
+		final float _maxHeight, @NonNull final FloatingMarkerTitlesStats _stats) {
+		GMFMTTextLayout res = _markerInfo.textLayout;
+		if (res == null) {
+			res = new GMFMTTextLayout();
+			_markerInfo.textLayout = res;
+		}
+		final String title = _markerInfo.getTitle();
+		if (!res.matches(title, _textPaint, _maxWidth, _maxHeight)) {
+			res.rebuild(title, _textPaint, _maxWidth, _maxHeight);
+			_stats.layoutsBuilt++;
+		}
+		return res;
+	}
+
+	private boolean matches(@NonNull final String _title, @NonNull final TextPaint _textPaint, final float _maxWidth,
+		final float _maxHeight) {
+		return textPaint == _textPaint//
+			&& textSize == _textPaint.getTextSize()//
+			&& maxWidth == _maxWidth//
+			&& maxHeight == _maxHeight//
+			&& _title.equals(title);
+	}
+
+	private void rebuild(@NonNull final String _title, @NonNull final TextPaint _textPaint, final float _maxWidth,
+		final float _maxHeight) {
+		title = _title;
+		textPaint = _textPaint;
+		textSize = _textPaint.getTextSize();
+		maxWidth = _maxWidth;
+		maxHeight = _maxHeight;
+		version++;
+
+		final Point measuredSize = GMFMTUtils.measureMultiLineEllipsizedText(_textPaint, (int) _maxWidth, (int) _maxHeight, _title);
+		width = measuredSize.x;
+		height = measuredSize.y;
+
+		final String truncatedText = GMFMTUtils.getTruncatedText(_textPaint, _maxWidth, height, _title);
+		if (truncatedText == null) {
+			drawingLayout = null;
+		} else {
+			drawingLayout = new StaticLayout(truncatedText, _textPaint, Math.abs(width), Layout.Alignment.ALIGN_NORMAL, 1.0f, 0.0f, false);
+		}
+	}
+
+	int getVersion() {
+		return version;
+	}
+
+	int getWidth() {
+		return width;
+	}
+
+	int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return the layout to draw, or null if the title doesn't fit in the maximum text height
+	 */
+	@Nullable
+	StaticLayout getDrawingLayout() {
+		return drawingLayout;
+	}
+}
@@ -0,0 +1,116 @@
+package com.exlyo.gmfmt;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Floating titles rendered once (stroke and fill passes, fully opaque) into bitmaps, so that a frame only needs one bitmap draw per
+ * title, with the fade-in alpha applied by the paint. The least recently drawn bitmaps are dropped once the memory budget is exceeded.
+ * <p>
+ * Entries are keyed by text layout: a bitmap is rendered again if its layout was rebuilt (new title, text size, ...) or if the title
+ * color changed.
+ */
+class GMFMTTitleBitmapCache {
+	private static final class Entry {
+		@NonNull
+		final Bitmap bitmap;
+		final int layoutVersion;
+		final int color;
+
+		Entry(@NonNull final Bitmap _bitmap, final int _layoutVersion, final int _color) {
+			bitmap = _bitmap;
+			layoutVersion = _layoutVersion;
+			color = _color;
+		}
+	}
+
+	/* Access ordered, so that iteration starts with the least recently drawn title */
+	@NonNull
+	private final LinkedHashMap<GMFMTTextLayout, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+	@NonNull
+	private final FloatingMarkerTitlesStats stats;
+
+	private long maxSizeBytes;
+	private long sizeBytes;
+
+	GMFMTTitleBitmapCache(@NonNull final FloatingMarkerTitlesStats _stats, final long _maxSizeBytes) {
+		stats = _stats;
+		maxSizeBytes = _maxSizeBytes;
+	}
+
+	void setMaxSizeBytes(final long _maxSizeBytes) {
+		maxSizeBytes = _maxSizeBytes;
+		trimToSize(maxSizeBytes);
+	}
+
+	/**
+	 * Returns the rendered title of _textLayout, rendering it if needed.
+	 *
+	 * @param _padding: space around the text layout, which must be enough for the stroke pass
+	 * @return null if the title doesn't fit in the memory budget, in which case it should be drawn directly
+	 */
+	@Nullable
+	Bitmap get(@NonNull final GMFMTTextLayout _textLayout, @NonNull final StaticLayout _drawingLayout, @NonNull final TextPaint _textPaint,
+		final int _color, final int _padding) {
+		final Entry cached = entries.get(_textLayout);
+		if (cached != null) {
+			if (cached.layoutVersion == _textLayout.getVersion() && cached.color == _color) {
+				return cached.bitmap;
+			}
+			remove(_textLayout);
+		}
+
+		final int width = _drawingLayout.getWidth() + 2 * _padding;
+		final int height = _drawingLayout.getHeight() + 2 * _padding;
+		final long byteCount = (long) width * height * 4;
+		if (width <= 0 || height <= 0 || byteCount > maxSizeBytes) {
+			return null;
+		}
+		trimToSize(maxSizeBytes - byteCount);
+
+		final Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+		GMFMTUtils.drawMarkerTitle(new Canvas(bitmap), _drawingLayout, _textPaint, _color, 255, _padding, _padding);
+		entries.put(_textLayout, new Entry(bitmap, _textLayout.getVersion(), _color));
+		sizeBytes += bitmap.getAllocationByteCount();
+		stats.bitmapsRendered++;
+		return bitmap;
+	}
+
+	void clear() {
+		entries.clear();
+		sizeBytes = 0;
+	}
+
+	long getSizeBytes() {
+		return sizeBytes;
+	}
+
+	private void remove(@NonNull final GMFMTTextLayout _textLayout) {
+		final Entry removed = entries.remove(_textLayout);
+		if (removed != null) {
+			sizeBytes -= removed.bitmap.getAllocationByteCount();
+		}
+	}
+
+	/**
+	 * Drops the least recently drawn bitmaps until the cache takes at most _maxSizeBytes. The bitmaps are not recycled: they may still be
+	 * referenced by the display list of the current frame.
+	 */
+	private void trimToSize(final long _maxSizeBytes) {
+		final Iterator<Map.Entry<GMFMTTextLayout, Entry>> iterator = entries.entrySet().iterator();
+		while (sizeBytes > _maxSizeBytes && iterator.hasNext()) {
+			sizeBytes -= iterator.next().getValue().bitmap.getAllocationByteCount();
+			iterator.remove();
+		}
+	}
+}
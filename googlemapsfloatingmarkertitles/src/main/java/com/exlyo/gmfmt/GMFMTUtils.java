@@ -3,6 +3,7 @@ package com.exlyo.gmfmt;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Paint;
 import android.graphics.Point;
 import android.graphics.Rect;
 import android.text.Layout;
@@ -35,16 +36,6 @@ final class GMFMTUtils {
 		return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, _dipValue, metrics);
 	}
 
-	public static int getCanvasWidth(@NonNull final Canvas _canvas) {
-		final Rect clipBounds = _canvas.getClipBounds();
-		return Math.abs(clipBounds.right - clipBounds.left);
-	}
-
-	public static int getCanvasHeight(@NonNull final Canvas _canvas) {
-		final Rect clipBounds = _canvas.getClipBounds();
-		return Math.abs(clipBounds.bottom - clipBounds.top);
-	}
-
 	/**
 	 * Computes the screen space (width and height) occupied by some text with a given text paint, if the text needed to fit in a given
 	 * width/height with ellipsis
@@ -67,17 +58,34 @@ final class GMFMTUtils {
 		return new Point(resWidth, resHeight);
 	}
 
-	public static void drawMultiLineText(@NonNull final Canvas _canvas, @NonNull final TextPaint _textPaint, final float _x, final float _y,
-		final float _width, @NonNull final String _text) {
-		final StaticLayout drawingTextLayout =
-			new StaticLayout(_text, _textPaint, (int) Math.abs(_width), Layout.Alignment.ALIGN_NORMAL, 1.0f, 0.0f, false);
-
+	public static void drawTextLayout(@NonNull final Canvas _canvas, @NonNull final Layout _layout, final float _x, final float _y) {
 		_canvas.save();
 		_canvas.translate(_x, _y);
-		drawingTextLayout.draw(_canvas);
+		_layout.draw(_canvas);
 		_canvas.restore();
 	}
 
+	/**
+	 * Draws a floating title: a contrasting stroke pass, then a fill pass with the marker color. _textPaint must be the paint _layout was
+	 * built with, as the layout reads the paint style and color at draw time.
+	 */
+	public static void drawMarkerTitle(@NonNull final Canvas _canvas, @NonNull final Layout _layout, @NonNull final TextPaint _textPaint,
+		@ColorInt final int _color, final int _alpha, final float _x, final float _y) {
+		_textPaint.setStyle(Paint.Style.STROKE);
+		if (isDarkColor(_color)) {
+			_textPaint.setColor(Color.WHITE);
+			_textPaint.setAlpha((int) (_alpha / 1.2F));
+		} else {
+			_textPaint.setColor(Color.BLACK);
+			_textPaint.setAlpha((int) (_alpha / 2F));
+		}
+		drawTextLayout(_canvas, _layout, _x, _y);
+		_textPaint.setStyle(Paint.Style.FILL);
+		_textPaint.setColor(_color);
+		_textPaint.setAlpha(_alpha);
+		drawTextLayout(_canvas, _layout, _x, _y);
+	}
+
 	@Nullable
 	public static String getTruncatedText(final @NonNull TextPaint _textPaint, final float _width, final float _height,
 		final @NonNull String _text) {
@@ -0,0 +1,30 @@
+package com.exlyo.gmfmt;
+
+/**
+ * Web Mercator helpers, matching the projection used by Google Maps: at zoom level z the whole world is 256 * 2^z dp wide. World
+ * coordinates are normalized, (0, 0) being the north-west corner of the world and (1, 1) the south-east corner.
+ */
+final class GMFMTWebMercator {
+	/* Tile size of Google Maps, in dp */
+	private static final double TILE_SIZE_DP = 256;
+	private static final double MAX_LATITUDE = 85.05112878;
+
+	private GMFMTWebMercator() {
+	}
+
+	static double worldX(final double _longitude) {
+		return (_longitude + 180) / 360;
+	}
+
+	static double worldY(final double _latitude) {
+		final double sinLatitude = Math.sin(Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, _latitude))));
+		return 0.5 - Math.log((1 + sinLatitude) / (1 - sinLatitude)) / (4 * Math.PI);
+	}
+
+	/**
+	 * @return the width of the world in pixels at the given zoom level
+	 */
+	static double worldSizePx(final float _zoom, final float _density) {
+		return TILE_SIZE_DP * Math.pow(2, _zoom) * _density;
+	}
+}
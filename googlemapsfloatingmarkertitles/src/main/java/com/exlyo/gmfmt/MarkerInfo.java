@@ -1,5 +1,7 @@
 package com.exlyo.gmfmt;
 
+import android.graphics.RectF;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -22,6 +24,20 @@ public class MarkerInfo {
 	private float zIndex;
 	private boolean boldText;
 
+	/* Cached floating title layout, owned by the overlay drawing thread */
+	@Nullable
+	GMFMTTextLayout textLayout;
+
+	/* Index of the per-marker data in the overlay arrays, -1 while not tracked by an overlay */
+	int slot = -1;
+
+	/* Area taken on the screen by the floating title, reused from frame to frame */
+	@NonNull
+	final RectF displayArea = new RectF();
+
+	/* Time the floating title was added to the display, to properly calculate the animation state (text alpha) */
+	long displayedSince;
+
 	public MarkerInfo(@NonNull final LatLng _coordinates, @NonNull final String _title, final int _color) {
 		this(_coordinates, _title, _color, true);
 	}
@@ -48,6 +64,11 @@ public class MarkerInfo {
 		return this;
 	}
 
+	public MarkerInfo setColor(final int _color) {
+		color = _color;
+		return this;
+	}
+
 	public MarkerInfo setVisible(final boolean _visible) {
 		visible = _visible;
 		return this;
@@ -83,6 +104,19 @@ public class MarkerInfo {
 		return this;
 	}
 
+	/**
+	 * Copies all the values of _other into this MarkerInfo, which keeps its floating title display state.
+	 */
+	void copyValuesFrom(@NonNull final MarkerInfo _other) {
+		marker = _other.marker;
+		coordinates = _other.coordinates;
+		title = _other.title;
+		color = _other.color;
+		visible = _other.visible;
+		zIndex = _other.zIndex;
+		boldText = _other.boldText;
+	}
+
 	@NonNull
 	public LatLng getCoordinates() {
 		final Marker m = marker;